@@ -0,0 +1,189 @@
+package com.github.tminglei.bind;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.text.DecimalFormatSymbols;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * resource bundle backed messages, which caches instances per (bundle, locale),
+ * and parses every message template only once
+ */
+public class BundleMessages implements Messages {
+    public static final String DEFAULT_BUNDLE = "bind-messages";
+
+    private static final Logger logger = LoggerFactory.getLogger(BundleMessages.class);
+    private static final Map<String, BundleMessages> INSTANCES = new ConcurrentHashMap<>();
+
+    private final ResourceBundle bundle;
+    private final Locale locale;
+    private final Map<String, Template> templates = new ConcurrentHashMap<>();
+
+    BundleMessages(ResourceBundle bundle, Locale locale) {
+        this.bundle = Objects.requireNonNull(bundle, "bundle is NULL!!");
+        this.locale = Objects.requireNonNull(locale, "locale is NULL!!");
+    }
+
+    /**
+     * get (cached) messages for the built-in message bundle
+     * @param locale locale
+     * @return the messages
+     */
+    public static BundleMessages of(Locale locale) {
+        return of(DEFAULT_BUNDLE, locale);
+    }
+    public static BundleMessages of(String baseName, Locale locale) {
+        return INSTANCES.computeIfAbsent(baseName + "@" + locale.toLanguageTag(), k -> {
+            logger.debug("loading messages bundle '{}' for {}", baseName, locale);
+            return new BundleMessages(ResourceBundle.getBundle(baseName, locale), locale);
+        });
+    }
+
+    public Locale locale() {
+        return locale;
+    }
+
+    /**
+     * @param key message key
+     * @return message template, or null if not exists
+     */
+    @Override
+    public String get(String key) {
+        return bundle.containsKey(key) ? bundle.getString(key) : null;
+    }
+
+    @Override
+    public String format(String key, Object... args) {
+        Template template = templates.get(key);
+        if (template == null) {
+            String message = get(key);
+            if (message == null) {
+                throw new MissingResourceException("Can't find message for key '" + key + "'",
+                        getClass().getName(), key);
+            }
+            template = templates.computeIfAbsent(key, k -> new Template(message, locale));
+        }
+        return template.format(args);
+    }
+
+    /////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * pre-parsed `String.format` template; `%s`/`%d` are rendered directly,
+     * other specifiers are delegated to `String.format` one by one
+     */
+    static final class Template {
+        // same as the specifier pattern used by java.util.Formatter
+        private static final Pattern SPECIFIER =
+                Pattern.compile("%(\\d+\\$)?([-#+ 0,(\\<]*)?(\\d+)?(\\.\\d+)?([tT])?([a-zA-Z%])");
+
+        private static final int LITERAL = 0;
+        private static final int STRING  = 1;
+        private static final int INTEGER = 2;
+        private static final int GENERIC = 3;
+
+        private final String template;
+        private final Locale locale;
+        private final boolean plainDigits;
+        // parallel arrays: segment kind, literal text/specifier, argument index
+        private final int[] kinds;
+        private final String[] texts;
+        private final int[] argIndexes;
+        // true if the template uses features we don't pre-parse (e.g. relative index '<')
+        private final boolean fallback;
+
+        Template(String template, Locale locale) {
+            this.template = template;
+            this.locale = locale;
+            this.plainDigits = DecimalFormatSymbols.getInstance(locale).getZeroDigit() == '0';
+
+            List<Integer> kinds = new ArrayList<>();
+            List<String> texts = new ArrayList<>();
+            List<Integer> argIndexes = new ArrayList<>();
+            boolean fallback = false;
+
+            StringBuilder literal = new StringBuilder();
+            Matcher m = SPECIFIER.matcher(template);
+            int pos = 0, ordinary = 0;
+            while (m.find()) {
+                literal.append(template, pos, m.start());
+                pos = m.end();
+
+                String index = m.group(1), flags = m.group(2), width = m.group(3),
+                        precision = m.group(4), time = m.group(5), conversion = m.group(6);
+                boolean simple = isEmpty(flags) && width == null && precision == null && time == null;
+                if ("%".equals(conversion) && simple) {
+                    literal.append('%');
+                } else if ("n".equals(conversion) && simple) {
+                    literal.append(System.lineSeparator());
+                } else if (flags != null && flags.indexOf('<') >= 0) {
+                    fallback = true;
+                    break;
+                } else {
+                    if (literal.length() > 0) {
+                        kinds.add(LITERAL); texts.add(literal.toString()); argIndexes.add(-1);
+                        literal.setLength(0);
+                    }
+                    int argIndex = index != null ? Integer.parseInt(index.substring(0, index.length() - 1)) - 1
+                            : ordinary++;
+                    // specifier w/o argument index, since it'll be applied to one argument only
+                    String spec = "%" + nullToEmpty(flags) + nullToEmpty(width) + nullToEmpty(precision)
+                            + nullToEmpty(time) + conversion;
+                    kinds.add(simple && "s".equals(conversion) ? STRING
+                            : simple && "d".equals(conversion) ? INTEGER : GENERIC);
+                    texts.add(spec);
+                    argIndexes.add(argIndex);
+                }
+            }
+            if (!fallback) {
+                literal.append(template, pos, template.length());
+                if (literal.length() > 0) {
+                    kinds.add(LITERAL); texts.add(literal.toString()); argIndexes.add(-1);
+                }
+            }
+
+            this.fallback = fallback;
+            this.kinds = kinds.stream().mapToInt(Integer::intValue).toArray();
+            this.texts = texts.toArray(new String[0]);
+            this.argIndexes = argIndexes.stream().mapToInt(Integer::intValue).toArray();
+        }
+
+        String format(Object... args) {
+            if (fallback) return String.format(locale, template, args);
+
+            StringBuilder result = new StringBuilder(template.length() + 16);
+            for (int i = 0; i < kinds.length; i++) {
+                if (kinds[i] == LITERAL) {
+                    result.append(texts[i]);
+                    continue;
+                }
+
+                int argIndex = argIndexes[i];
+                if (args == null || argIndex >= args.length) {
+                    throw new MissingFormatArgumentException(texts[i]);
+                }
+                Object arg = args[argIndex];
+                if (kinds[i] == STRING && !(arg instanceof Formattable)) {
+                    result.append(arg);
+                } else if (kinds[i] == INTEGER && plainDigits && (arg instanceof Integer
+                        || arg instanceof Long || arg instanceof Short || arg instanceof Byte)) {
+                    result.append(arg);
+                } else {
+                    result.append(String.format(locale, texts[i], arg));
+                }
+            }
+            return result.toString();
+        }
+
+        private static boolean isEmpty(String str) {
+            return str == null || str.isEmpty();
+        }
+        private static String nullToEmpty(String str) {
+            return str == null ? "" : str;
+        }
+    }
+}
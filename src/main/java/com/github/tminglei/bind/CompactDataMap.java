@@ -0,0 +1,343 @@
+package com.github.tminglei.bind;
+
+import java.util.*;
+
+/**
+ * memory compact data map, used to hold large flattened data, e.g. expanded from a big json list
+ *
+ * keys are stored as a trie of segments split before '.' and '[' (e.g. `items[12].name` -+
+ * `items`, `[12]`, `.name`), and name segments are shared with a bounded pool, so `.name` will be stored
+ * only once for all items (index segments are unique per list, so they aren't pooled);
+ * short values are deduplicated with a bounded pool, so repeated values like `true` are stored only once
+ */
+public class CompactDataMap extends AbstractMap<String, String> {
+    static final int MAX_POOLED_VALUES = 1024;
+    static final int MAX_POOLED_SEGMENTS = 1024;
+    static final int MAX_POOLED_VALUE_LENGTH = 32;
+    // fan-out above which children will be held in a hash map
+    static final int MAX_LINEAR_CHILDREN = 8;
+
+    private static final String NO_VALUE = new String("");
+
+    private Node root = new Node("");
+    private int size = 0;
+    private final Map<String, String> segments = new HashMap<>();
+    private final Map<String, String> values = new HashMap<>();
+
+    public CompactDataMap() {}
+    public CompactDataMap(Map<String, String> data) {
+        putAll(data);
+    }
+
+    /**
+     * create data map from json text
+     * @param prefix path prefix
+     * @param json json text
+     * @return new created data map
+     */
+    public static CompactDataMap fromJson(String prefix, String json) {
+        CompactDataMap result = new CompactDataMap();
+        JsonFlattener.flatten(prefix, json, result, JsonFlattener.DEFAULT_MAX_DEPTH);
+        return result;
+    }
+
+    ///
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        Node node = key instanceof String ? find((String) key, false) : null;
+        return node != null && node.value != NO_VALUE;
+    }
+
+    @Override
+    public String get(Object key) {
+        Node node = key instanceof String ? find((String) key, false) : null;
+        return node == null || node.value == NO_VALUE ? null : node.value;
+    }
+
+    @Override
+    public String put(String key, String value) {
+        Node node = find(key, true);
+        String old = node.value;
+        node.value = pooled(value);
+        if (old == NO_VALUE) {
+            size++;
+            return null;
+        } else return old;
+    }
+
+    @Override
+    public String remove(Object key) {
+        Node node = key instanceof String ? find((String) key, false) : null;
+        if (node == null || node.value == NO_VALUE) return null;
+        else {
+            String old = node.value;
+            node.value = NO_VALUE;
+            size--;
+            return old;
+        }
+    }
+
+    @Override
+    public void clear() {
+        root = new Node("");
+        size = 0;
+        segments.clear();
+        values.clear();
+    }
+
+    @Override
+    public Set<Entry<String, String>> entrySet() {
+        return new AbstractSet<Entry<String, String>>() {
+            @Override
+            public Iterator<Entry<String, String>> iterator() {
+                return new EntryIterator();
+            }
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    /**
+     * keys starting w/ the prefix, found by walking to the prefix's subtree, w/o scanning other keys
+     */
+    List<String> keysUnder(String prefix) {
+        List<String> keys = new ArrayList<>();
+        if (prefix.isEmpty()) keys.addAll(keySet());
+        else {
+            StringBuilder key = new StringBuilder().append(prefix, 0, lastSegmentStart(prefix));
+            for (Node node : prefixNodes(prefix)) collectKeys(node, key, keys);
+        }
+        return keys;
+    }
+
+    /**
+     * whether there are keys starting w/ the prefix
+     */
+    boolean hasKeysUnder(String prefix) {
+        if (prefix.isEmpty()) return size > 0;
+        for (Node node : prefixNodes(prefix)) {
+            if (hasValue(node)) return true;
+        }
+        return false;
+    }
+
+    /**
+     * indexes of keys like `name[index]...`, in ascending order
+     */
+    List<Integer> indexes(String name) {
+        Node node = find(name, false);
+        if (node == null) return Collections.emptyList();
+        SortedSet<Integer> indexes = new TreeSet<>();
+        for (Iterator<Node> it = node.childIterator(); it.hasNext(); ) {
+            Node child = it.next();
+            int index = parseIndex(child.segment);
+            if (index >= 0 && hasValue(child)) indexes.add(index);
+        }
+        return new ArrayList<>(indexes);
+    }
+
+    /////////////////////////////////////////////////////////////////////////////////////
+
+    // nodes whose segment starts w/ the prefix's last (maybe partial) segment, under the node of its other segments
+    private List<Node> prefixNodes(String prefix) {
+        int start = lastSegmentStart(prefix);
+        Node node = start == 0 ? root : find(prefix.substring(0, start), false);
+        if (node == null) return Collections.emptyList();
+
+        List<Node> nodes = new ArrayList<>();
+        int len = prefix.length() - start;
+        for (Iterator<Node> it = node.childIterator(); it.hasNext(); ) {
+            Node child = it.next();
+            if (child.segment.regionMatches(0, prefix, start, len)) nodes.add(child);
+        }
+        return nodes;
+    }
+
+    private static int lastSegmentStart(String prefix) {
+        int start = 0;
+        for (int end = 1; end < prefix.length(); end++) {
+            if (prefix.charAt(end) == '.' || prefix.charAt(end) == '[') start = end;
+        }
+        return start;
+    }
+
+    private static void collectKeys(Node node, StringBuilder key, List<String> keys) {
+        int length = key.length();
+        key.append(node.segment);
+        if (node.value != NO_VALUE) keys.add(key.toString());
+        for (Iterator<Node> it = node.childIterator(); it.hasNext(); ) collectKeys(it.next(), key, keys);
+        key.setLength(length);
+    }
+
+    private static boolean hasValue(Node node) {
+        if (node.value != NO_VALUE) return true;
+        for (Iterator<Node> it = node.childIterator(); it.hasNext(); ) {
+            if (hasValue(it.next())) return true;
+        }
+        return false;
+    }
+
+    // index of segment like `[12]...`, or -1 if not matched
+    private static int parseIndex(String segment) {
+        if (segment.length() < 3 || segment.charAt(0) != '[') return -1;
+        int index = 0, i = 1;
+        for (; i < segment.length() && Character.isDigit(segment.charAt(i)); i++) {
+            index = index * 10 + (segment.charAt(i) - '0');
+        }
+        return i > 1 && i < segment.length() && segment.charAt(i) == ']' ? index : -1;
+    }
+
+    private Node find(String key, boolean create) {
+        Node node = root;
+        for (int start = 0, end; start < key.length(); start = end) {
+            end = start + 1;
+            while (end < key.length() && key.charAt(end) != '.' && key.charAt(end) != '[') end++;
+
+            Node child = node.child(key, start, end);
+            if (child == null) {
+                if (!create) return null;
+                child = node.addChild(pooledSegment(key.substring(start, end)));
+            }
+            node = child;
+        }
+        return node;
+    }
+
+    private String pooledSegment(String segment) {
+        if (segment.charAt(0) == '[') return segment;
+        String pooled = segments.get(segment);
+        if (pooled != null) return pooled;
+        else {
+            if (segments.size() < MAX_POOLED_SEGMENTS) segments.put(segment, segment);
+            return segment;
+        }
+    }
+
+    private String pooled(String value) {
+        if (value == null || value.length() > MAX_POOLED_VALUE_LENGTH) return value;
+        String pooled = values.get(value);
+        if (pooled != null) return pooled;
+        else {
+            if (values.size() < MAX_POOLED_VALUES) values.put(value, value);
+            return value;
+        }
+    }
+
+    private static final class Node {
+        final String segment;
+        String value = NO_VALUE;
+        // children are held linearly, or in a hash map once the fan-out exceeds MAX_LINEAR_CHILDREN
+        Node[] linear;
+        Map<String, Node> hashed;
+
+        Node(String segment) {
+            this.segment = segment;
+        }
+
+        Node child(String key, int start, int end) {
+            if (linear != null) {
+                int len = end - start;
+                for (Node child : linear) {
+                    if (child.segment.length() == len && key.regionMatches(start, child.segment, 0, len))
+                        return child;
+                }
+                return null;
+            } else if (hashed != null) {
+                return hashed.get(key.substring(start, end));
+            } else return null;
+        }
+
+        Node addChild(String segment) {
+            Node child = new Node(segment);
+            if (hashed != null) {
+                hashed.put(segment, child);
+            } else if (linear == null) {
+                linear = new Node[]{ child };
+            } else if (linear.length < MAX_LINEAR_CHILDREN) {
+                linear = Arrays.copyOf(linear, linear.length + 1);
+                linear[linear.length - 1] = child;
+            } else {
+                hashed = new HashMap<>();
+                for (Node node : linear) hashed.put(node.segment, node);
+                hashed.put(segment, child);
+                linear = null;
+            }
+            return child;
+        }
+
+        Iterator<Node> childIterator() {
+            if (linear != null) return Arrays.asList(linear).iterator();
+            else if (hashed != null) return hashed.values().iterator();
+            else return Collections.emptyIterator();
+        }
+
+        boolean hasChildren() {
+            return linear != null || hashed != null;
+        }
+    }
+
+    // depth-first iterator, which rebuilds keys in a reused buffer
+    private final class EntryIterator implements Iterator<Entry<String, String>> {
+        private final Deque<Iterator<Node>> stack = new ArrayDeque<>();
+        private final Deque<Integer> keyLengths = new ArrayDeque<>();
+        private final StringBuilder key = new StringBuilder();
+        private Entry<String, String> next;
+        private String lastKey;
+
+        EntryIterator() {
+            if (root.value != NO_VALUE) next = new SimpleImmutableEntry<>("", root.value);
+            stack.push(root.childIterator());
+            keyLengths.push(0);
+            if (next == null) advance();
+        }
+
+        private void advance() {
+            next = null;
+            while (next == null && !stack.isEmpty()) {
+                Iterator<Node> it = stack.peek();
+                if (!it.hasNext()) {
+                    stack.pop();
+                    keyLengths.pop();
+                } else {
+                    Node node = it.next();
+                    key.setLength(keyLengths.peek());
+                    key.append(node.segment);
+                    if (node.value != NO_VALUE) next = new SimpleImmutableEntry<>(key.toString(), node.value);
+                    if (node.hasChildren()) {
+                        stack.push(node.childIterator());
+                        keyLengths.push(key.length());
+                    }
+                }
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        @Override
+        public Entry<String, String> next() {
+            if (next == null) throw new NoSuchElementException();
+            Entry<String, String> result = next;
+            lastKey = result.getKey();
+            advance();
+            return result;
+        }
+
+        @Override
+        public void remove() {
+            if (lastKey == null) throw new IllegalStateException();
+            CompactDataMap.this.remove(lastKey);
+            lastKey = null;
+        }
+    }
+}
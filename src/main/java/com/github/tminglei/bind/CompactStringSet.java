@@ -0,0 +1,116 @@
+package com.github.tminglei.bind;
+
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * immutable string set in compact encoding, used to hold large code lists (e.g. for `oneOf`)
+ *
+ * all strings are stored in one char array (or byte array, if all chars are latin1), and
+ * looked up through an open addressing hash table of their indexes; iteration (and so
+ * `toString`) follows the order of the source collection
+ */
+final class CompactStringSet extends AbstractSet<String> {
+    private final byte[] bytes;     // latin1 encoded, or null
+    private final char[] chars;     // used if not all latin1
+    private final int[] offsets;    // string i is in [offsets[i], offsets[i+1])
+    private final int[] table;      // string index + 1, or 0 if empty slot
+    private final int nullIndex;    // position of null in iteration order, or -1
+
+    CompactStringSet(Collection<String> values) {
+        List<String> distinct = new ArrayList<>(new LinkedHashSet<>(values));
+        this.nullIndex = distinct.indexOf(null);
+        distinct.remove(null);
+
+        int length = 0;
+        boolean latin1 = true;
+        for (String value : distinct) {
+            length += value.length();
+            for (int i = 0; latin1 && i < value.length(); i++) latin1 = value.charAt(i) < 256;
+        }
+        this.bytes = latin1 ? new byte[length] : null;
+        this.chars = latin1 ? null : new char[length];
+        this.offsets = new int[distinct.size() + 1];
+        this.table = new int[tableSize(distinct.size())];
+
+        for (int n = 0, pos = 0; n < distinct.size(); n++) {
+            String value = distinct.get(n);
+            for (int i = 0; i < value.length(); i++, pos++) {
+                if (latin1) bytes[pos] = (byte) value.charAt(i);
+                else chars[pos] = value.charAt(i);
+            }
+            offsets[n + 1] = pos;
+
+            int slot = slot(value);
+            while (table[slot] != 0) slot = (slot + 1) & (table.length - 1);
+            table[slot] = n + 1;
+        }
+    }
+
+    // power of two, w/ load factor <= 0.5
+    private static int tableSize(int count) {
+        int size = 2;
+        while (size < count * 2) size <<= 1;
+        return size;
+    }
+
+    // spread higher bits, since codes often differ only in the last chars
+    private int slot(String value) {
+        int h = value.hashCode();
+        return (h ^ (h >>> 16)) & (table.length - 1);
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        if (o == null) return nullIndex >= 0;
+        if (!(o instanceof String)) return false;
+
+        String value = (String) o;
+        for (int slot = slot(value); table[slot] != 0; slot = (slot + 1) & (table.length - 1)) {
+            if (matches(table[slot] - 1, value)) return true;
+        }
+        return false;
+    }
+
+    private boolean matches(int index, String value) {
+        int start = offsets[index], end = offsets[index + 1];
+        if (end - start != value.length()) return false;
+        for (int i = 0; i < value.length(); i++) {
+            char c = bytes != null ? (char) (bytes[start + i] & 0xff) : chars[start + i];
+            if (c != value.charAt(i)) return false;
+        }
+        return true;
+    }
+
+    private String get(int index) {
+        int start = offsets[index], end = offsets[index + 1];
+        return bytes != null ? new String(bytes, start, end - start, StandardCharsets.ISO_8859_1)
+                : new String(chars, start, end - start);
+    }
+
+    @Override
+    public int size() {
+        return offsets.length - 1 + (nullIndex >= 0 ? 1 : 0);
+    }
+
+    @Override
+    public Iterator<String> iterator() {
+        return new Iterator<String>() {
+            private int index = 0;
+            private boolean nullReturned = nullIndex < 0;
+
+            @Override
+            public boolean hasNext() {
+                return index < offsets.length - 1 || !nullReturned;
+            }
+            @Override
+            public String next() {
+                if (!nullReturned && index == nullIndex) {
+                    nullReturned = true;
+                    return null;
+                } else if (index < offsets.length - 1) return get(index++);
+                else throw new NoSuchElementException();
+            }
+        };
+    }
+}
@@ -17,6 +17,7 @@ public interface Const {
 
   String EX_CONSTRAINT_MIN = "min";
   String EX_CONSTRAINT_MAX = "max";
+  String EX_CONSTRAINT_CROSS_FIELD = "crossField";
 
   ///--- mapping
   String MAPPING_STRING = "string";
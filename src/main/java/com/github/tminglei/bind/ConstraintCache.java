@@ -0,0 +1,121 @@
+package com.github.tminglei.bind;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * bounded, concurrent cache of constraint results, keyed by (constraint, label, value), used by
+ * `Constraints.memoized` to skip expensive but deterministic checks on repeated values
+ *
+ * NOTE: entries are evicted in insertion order when the cache is full, or re-checked after `ttl`;
+ *       a cached failure is only reused with the same `Messages` which formatted it
+ */
+public final class ConstraintCache {
+    private final int maxEntries;
+    private final long ttlNanos;
+    private final Map<Key, Result> results = new ConcurrentHashMap<>();
+    private final Queue<Key> insertOrder = new ConcurrentLinkedQueue<>();
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    public ConstraintCache(int maxEntries, Duration ttl) {
+        if (maxEntries <= 0) throw new IllegalArgumentException("maxEntries should be > 0, but was " + maxEntries);
+        this.maxEntries = maxEntries;
+        this.ttlNanos = ttl.toNanos();
+    }
+
+    public long hitCount() {
+        return hits.get();
+    }
+    public long missCount() {
+        return misses.get();
+    }
+    public long evictionCount() {
+        return evictions.get();
+    }
+    public int size() {
+        return results.size();
+    }
+    public void clear() {
+        results.clear();
+        insertOrder.clear();
+    }
+
+    /**
+     * get the cached error messages, or null if not cached (or expired)
+     */
+    List<String> get(Object owner, String label, Object value, Messages messages) {
+        Result result = results.get(new Key(owner, label, value));
+        if (result == null || System.nanoTime() - result.expiresAt >= 0
+                || (!result.errors.isEmpty() && result.messages != messages)) {
+            misses.incrementAndGet();
+            return null;
+        } else {
+            hits.incrementAndGet();
+            return result.errors;
+        }
+    }
+
+    void put(Object owner, String label, Object value, Messages messages, List<String> errors) {
+        Key key = new Key(owner, label, value);
+        Result result = new Result(Collections.unmodifiableList(new ArrayList<>(errors)), messages,
+                System.nanoTime() + ttlNanos);
+        // an existing (expired or re-formatted) entry keeps its position in insertion order
+        if (results.put(key, result) == null) insertOrder.offer(key);
+
+        while (results.size() > maxEntries) {
+            Key eldest = insertOrder.poll();
+            if (eldest == null) break;
+            if (results.remove(eldest) != null) evictions.incrementAndGet();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "ConstraintCache(size=" + size() + ", hits=" + hitCount() + ", misses=" + missCount()
+                + ", evictions=" + evictionCount() + ")";
+    }
+
+    ///
+    private static final class Key {
+        final Object owner;
+        final String label;
+        final Object value;
+        final int hash;
+
+        Key(Object owner, String label, Object value) {
+            this.owner = owner;
+            this.label = label;
+            this.value = value;
+            this.hash = (System.identityHashCode(owner) * 31 + Objects.hashCode(label)) * 31 + Objects.hashCode(value);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key)) return false;
+            Key other = (Key) o;
+            return owner == other.owner && Objects.equals(label, other.label) && Objects.equals(value, other.value);
+        }
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    private static final class Result {
+        final List<String> errors;
+        final Messages messages;
+        final long expiresAt;
+
+        Result(List<String> errors, Messages messages, long expiresAt) {
+            this.errors = errors;
+            this.messages = messages;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
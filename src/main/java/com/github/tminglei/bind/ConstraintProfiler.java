@@ -0,0 +1,134 @@
+package com.github.tminglei.bind;
+
+import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import com.github.tminglei.bind.spi.*;
+
+/**
+ * per mapping profiler, used to re-order the constraints of a mapping by their observed cost and
+ * rejection rate, to minimize the expected cost of a (non-eager) check
+ *
+ * NOTE: constraints are considered as independent, that is, they can be run in any order; an order
+ *       sensitive constraint (see `Constraints.orderSensitive`) keeps its declared position, and
+ *       other constraints won't be moved across it
+ */
+final class ConstraintProfiler {
+    static final int SAMPLE_RATE = 16;          // profile 1 in 16 checks, randomly picked
+    static final int REORDER_SAMPLES = 64;      // re-order after every 64 profiled checks
+
+    private volatile Profile profile;
+
+    /**
+     * check `constraints` in current (adaptive) order, then `last`, which is always run last
+     */
+    List<Map.Entry<String, String>> validate(String name, Map<String, String> data, Messages messages,
+                                             Options options, List<Constraint> constraints, Constraint last) {
+        Profile profile = this.profile;
+        if (profile == null || profile.declared != constraints) {
+            profile = new Profile(constraints);
+            this.profile = profile;
+        }
+
+        List<Map.Entry<String, String>> errors = ThreadLocalRandom.current().nextInt(SAMPLE_RATE) == 0
+                ? profile.sample(name, data, messages, options)
+                : profile.run(name, data, messages, options);
+        return errors.isEmpty() ? last.apply(name, data, messages, options) : errors;
+    }
+
+    ///
+    private static final class Profile {
+        final List<Constraint> declared;
+        final AtomicInteger samples = new AtomicInteger();
+        final AtomicLongArray nanos;
+        final AtomicLongArray runs;
+        final AtomicLongArray rejects;
+        volatile int[] order;
+
+        Profile(List<Constraint> declared) {
+            this.declared = declared;
+            this.nanos = new AtomicLongArray(declared.size());
+            this.runs = new AtomicLongArray(declared.size());
+            this.rejects = new AtomicLongArray(declared.size());
+            this.order = new int[declared.size()];
+            for (int i = 0; i < order.length; i++) order[i] = i;
+        }
+
+        List<Map.Entry<String, String>> run(String name, Map<String, String> data, Messages messages, Options options) {
+            for (int i : order) {
+                List<Map.Entry<String, String>> errors = declared.get(i).apply(name, data, messages, options);
+                if (!errors.isEmpty()) return errors;
+            }
+            return Collections.emptyList();
+        }
+
+        // run and measure all constraints, until an order sensitive one after the first failure
+        List<Map.Entry<String, String>> sample(String name, Map<String, String> data, Messages messages, Options options) {
+            List<Map.Entry<String, String>> first = null;
+            for (int i : order) {
+                Constraint constraint = declared.get(i);
+                if (first != null && constraint instanceof OrderSensitive) break;
+
+                long start = System.nanoTime();
+                List<Map.Entry<String, String>> errors = constraint.apply(name, data, messages, options);
+                nanos.addAndGet(i, System.nanoTime() - start);
+                runs.incrementAndGet(i);
+                if (!errors.isEmpty()) {
+                    rejects.incrementAndGet(i);
+                    if (first == null) first = errors;
+                }
+            }
+
+            if (samples.incrementAndGet() % REORDER_SAMPLES == 0) reorder();
+            return first != null ? first : Collections.emptyList();
+        }
+
+        // sort by `cost / rejection rate` ascending, within segments split by order sensitive constraints
+        private void reorder() {
+            double[] scores = new double[declared.size()];
+            for (int i = 0; i < scores.length; i++) {
+                long runs = this.runs.get(i), rejects = this.rejects.get(i);
+                double cost = runs == 0 ? 0 : (double) nanos.get(i) / runs;
+                scores[i] = rejects == 0 ? Double.POSITIVE_INFINITY : cost * runs / rejects;
+            }
+
+            Integer[] newOrder = new Integer[scores.length];
+            for (int i = 0; i < newOrder.length; i++) newOrder[i] = i;
+            for (int start = 0, end; start < newOrder.length; start = end + 1) {
+                end = start;
+                while (end < newOrder.length && !(declared.get(end) instanceof OrderSensitive)) end++;
+                Arrays.sort(newOrder, start, end, Comparator.comparingDouble(i -> scores[i]));
+            }
+
+            int[] order = new int[newOrder.length];
+            for (int i = 0; i < order.length; i++) order[i] = newOrder[i];
+            this.order = order;
+        }
+    }
+
+    /**
+     * constraint wrapper, used to mark a constraint as order sensitive
+     */
+    static final class OrderSensitive implements Constraint {
+        final Constraint constraint;
+
+        OrderSensitive(Constraint constraint) {
+            this.constraint = constraint;
+        }
+
+        @Override
+        public ExtensionMeta meta() {
+            return constraint.meta();
+        }
+        @Override
+        public List<Map.Entry<String, String>> apply(String name, Map<String, String> data, Messages messages, Options options) {
+            return constraint.apply(name, data, messages, options);
+        }
+        @Override
+        public String toString() {
+            return constraint.toString();
+        }
+    }
+}
@@ -3,9 +3,9 @@ package com.github.tminglei.bind;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.Arrays;
-import java.util.Collection;
-import java.util.Collections;
+import java.time.Duration;
+import java.util.*;
+import java.util.function.Predicate;
 import java.util.regex.Matcher;
 import java.util.stream.Collectors;
 
@@ -27,7 +27,7 @@ public class Constraints implements Const {
         return required(null);
     }
     public static Constraint required(String message) {
-        return mkConstraintWithMeta(
+        return new Required(mkConstraintWithMeta(
             (name, data, messages, options) -> {
                 logger.debug("checking required for {}", name);
 
@@ -35,27 +35,94 @@ public class Constraints implements Const {
                     String errMessage;
                     // wrong input, e.g. required single but found multiple, required multiple but found single
                     if (!isEmptyInput(name, data, InputMode.POLYMORPHIC)) {
-                        String msgTemplate = messages.get("error.wronginput");
                         String simple = getLabel("simple", messages, options);
                         String compound = getLabel("compound", messages, options);
 
                         if (options._inputMode() == InputMode.SINGLE) {
-                            errMessage = String.format(msgTemplate, simple, compound);
+                            errMessage = messages.format("error.wronginput", simple, compound);
                         } else {
-                            errMessage = String.format(msgTemplate, compound, simple);
+                            errMessage = messages.format("error.wronginput", compound, simple);
                         }
                     } else {
-                        String msgTemplate = message != null ? message : messages.get("error.required");
                         String label = getLabel(name, messages, options);
 
-                        errMessage = String.format(msgTemplate, label);
+                        errMessage = message != null ? String.format(message, label)
+                                : messages.format("error.required", label);
                     }
 
                     return Arrays.asList(entry(name, errMessage));
                 } else return Collections.emptyList();
-            }, mkExtensionMeta(CONSTRAINT_REQUIRED));
+            }, mkExtensionMeta(CONSTRAINT_REQUIRED)));
         }
 
+    /**
+     * mark a constraint as order sensitive, which keeps its declared position when the constraints
+     * of a mapping are re-ordered by `adaptiveOrder`, and other constraints won't be moved across it
+     * @param constraint the constraint
+     * @return the marked constraint
+     */
+    public static Constraint orderSensitive(Constraint constraint) {
+        return constraint instanceof ConstraintProfiler.OrderSensitive ? constraint
+                : new ConstraintProfiler.OrderSensitive(constraint);
+    }
+
+    /**
+     * memoize the results of an expensive but deterministic constraint, keyed by label and value
+     * NOTE: only results of SINGLE input are cached; use `memoized(constraint, cache)` to share
+     *       the cache, or to read its hit/miss statistics
+     * @param constraint the constraint
+     * @param maxEntries max cached entries
+     * @param ttl time to live of a cached entry
+     * @return the memoized constraint
+     */
+    public static Constraint memoized(Constraint constraint, int maxEntries, Duration ttl) {
+        return memoized(constraint, new ConstraintCache(maxEntries, ttl));
+    }
+    public static Constraint memoized(Constraint constraint, ConstraintCache cache) {
+        return new Constraint() {
+            @Override
+            public ExtensionMeta meta() {
+                return constraint.meta();
+            }
+            @Override
+            public List<Map.Entry<String, String>> apply(String name, Map<String, String> data, Messages messages, Options options) {
+                if (options._inputMode() != InputMode.SINGLE) return constraint.apply(name, data, messages, options);
+
+                String label = getLabel(name, messages, options);
+                String value = data.get(name);
+                List<String> cached = cache.get(constraint, label, value, messages);
+                if (cached != null) {
+                    return cached.stream().map(error -> entry(name, error)).collect(Collectors.toList());
+                }
+
+                List<Map.Entry<String, String>> errors = constraint.apply(name, data, messages, options);
+                if (errors.stream().allMatch(e -> name.equals(e.getKey()))) {
+                    cache.put(constraint, label, value, messages,
+                            errors.stream().map(Map.Entry::getValue).collect(Collectors.toList()));
+                }
+                return errors;
+            }
+            @Override
+            public String toString() {
+                return constraint.toString();
+            }
+        };
+    }
+
+    /**
+     * mark a constraint as deterministic, that is, its result only depends on its inputs, so the
+     * bind results of a mapping tree w/ only deterministic constraints can be cached (built-in
+     * constraints are deterministic already)
+     * @param constraint the constraint
+     * @return the marked constraint
+     */
+    public static Constraint deterministic(Constraint constraint) {
+        return isDeterministic(constraint) ? constraint : new Deterministic(constraint);
+    }
+    public static <T> ExtraConstraint<T> deterministic(ExtraConstraint<T> constraint) {
+        return isDeterministic(constraint) ? constraint : new DeterministicExtra<>(constraint);
+    }
+
     public static Constraint maxLength(int length) {
         return maxLength(length, true);
     }
@@ -66,14 +133,14 @@ public class Constraints implements Const {
         return maxLength(length, message, true);
     }
     public static Constraint maxLength(int length, String message, boolean withIt) {
-        return mkSimpleConstraint(
+        return mkBuiltinConstraint(
                 (label, vString, messages) -> {
                     logger.debug("checking max-length ({}) for '{}'", length, vString);
 
                     if (vString != null && ((withIt && vString.length() > length)
                             || (!withIt && vString.length() >= length))) {
-                        String msgTemplate = message != null ? message : messages.get("error.maxlength");
-                        return String.format(msgTemplate, vString, length, withIt);
+                        return message != null ? String.format(message, vString, length, withIt)
+                                : messages.format("error.maxlength", vString, length, withIt);
                     } else return null;
                 }, mkExtensionMeta(CONSTRAINT_MAX_LENGTH, length));
         }
@@ -88,14 +155,14 @@ public class Constraints implements Const {
         return minLength(length, message, true);
     }
     public static Constraint minLength(int length, String message, boolean withIt) {
-        return mkSimpleConstraint(
+        return mkBuiltinConstraint(
             (label, vString, messages) -> {
                 logger.debug("checking min-length ({}) for '{}'", length, vString);
 
                 if (vString != null && ((withIt && vString.length() < length)
                         || (!withIt && vString.length() <= length))) {
-                    String msgTemplate = message != null ? message : messages.get("error.minlength");
-                    return String.format(msgTemplate, vString, length, withIt);
+                    return message != null ? String.format(message, vString, length, withIt)
+                            : messages.format("error.minlength", vString, length, withIt);
                 } else return null;
             }, mkExtensionMeta(CONSTRAINT_MIN_LENGTH, length));
         }
@@ -104,13 +171,13 @@ public class Constraints implements Const {
         return length(length, null);
     }
     public static Constraint length(int length, String message) {
-        return mkSimpleConstraint(
+        return mkBuiltinConstraint(
             (label, vString, messages) -> {
                 logger.debug("checking length ({}) for '{}'", length, vString);
 
                 if (vString != null && vString.length() != length) {
-                    String msgTemplate = message != null ? message : messages.get("error.length");
-                    return String.format(msgTemplate, vString, length);
+                    return message != null ? String.format(message, vString, length)
+                            : messages.format("error.length", vString, length);
                 } else return null;
             }, mkExtensionMeta(CONSTRAINT_LENGTH, length));
         }
@@ -119,28 +186,44 @@ public class Constraints implements Const {
         return oneOf(values, null);
     }
     public static Constraint oneOf(Collection<String> values, String message) {
-        return mkSimpleConstraint(
+        return oneOf(values, message, false);
+    }
+    /**
+     * @param values allowed values, which are copied (in original order) as the meta params, and held in a
+     *               hash set for lookups; a sorted or custom set keeps its own `contains` semantics
+     * @param message custom error message
+     * @param compact whether to hold the values in compact encoding, which is preferred for large code lists
+     * @return new created constraint
+     */
+    public static Constraint oneOf(Collection<String> values, String message, boolean compact) {
+        List<String> valueList = Collections.unmodifiableList(new ArrayList<>(values));
+        Collection<String> valueSet = compact ? new CompactStringSet(values)
+                : values instanceof SortedSet ? new TreeSet<>((SortedSet<String>) values)    // w/ its comparator
+                : values instanceof Set && !(values instanceof HashSet) ? values
+                : new HashSet<>(values);
+        return mkBuiltinConstraint(
             (label, vString, messages) -> {
-                logger.debug("checking one of {} for '{}'", values, vString);
+                logger.debug("checking one of {} values for '{}'", valueList.size(), vString);
 
-                if (!values.contains(vString)) {
-                    String msgTemplate = message != null ? message : messages.get("error.oneof");
-                    return String.format(msgTemplate, vString, values);
+                if (!valueSet.contains(vString)) {
+                    return message != null ? String.format(message, vString, valueList)
+                            : messages.format("error.oneof", vString, valueList);
                 } else return null;
-            }, mkExtensionMeta(CONSTRAINT_ONE_OF, values));
+            }, mkExtensionMeta(CONSTRAINT_ONE_OF, valueList));
         }
 
     public static Constraint email() {
         return email(null);
     }
     public static Constraint email(String message) {
-        return mkSimpleConstraint(
+        return mkBuiltinConstraint(
             (label, vString, messages) -> {
                 logger.debug("checking email for '{}'", vString);
 
-                if (vString != null && !vString.matches(PATTERN_EMAIL)) {
-                    String msgTemplate = message != null ? message : messages.get("error.email");
-                    return String.format(msgTemplate, vString, PATTERN_EMAIL);
+                // same as `vString.matches(PATTERN_EMAIL)`
+                if (vString != null && !isEmail(vString)) {
+                    return message != null ? String.format(message, vString, PATTERN_EMAIL)
+                            : messages.format("error.email", vString, PATTERN_EMAIL);
                 } else return null;
             }, mkExtensionMeta(CONSTRAINT_EMAIL));
         }
@@ -149,13 +232,24 @@ public class Constraints implements Const {
         return pattern(pattern, null);
     }
     public static Constraint pattern(String pattern, String message) {
-        return mkSimpleConstraint(
+        return pattern(pattern, message, false);
+    }
+    /**
+     * @param pattern the regex
+     * @param message custom error message
+     * @param linear whether to use the linear time regex engine, which only supports a subset of java regex;
+     *               for unsupported patterns, a warning will be logged, and java regex will be used
+     * @return new created constraint
+     */
+    public static Constraint pattern(String pattern, String message, boolean linear) {
+        Predicate<String> matcher = LinearPattern.matcher(pattern, linear);
+        return mkBuiltinConstraint(
             (label, vString, messages) -> {
                 logger.debug("checking pattern '{}' for '{}'", pattern, vString);
 
-                if (vString != null && !vString.matches(pattern)) {
-                    String msgTemplate = message != null ? message : messages.get("error.pattern");
-                    return String.format(msgTemplate, vString, pattern);
+                if (vString != null && !matcher.test(vString)) {
+                    return message != null ? String.format(message, vString, pattern)
+                            : messages.format("error.pattern", vString, pattern);
                 } else return null;
             }, mkExtensionMeta(CONSTRAINT_PATTERN, pattern));
         }
@@ -164,13 +258,23 @@ public class Constraints implements Const {
         return patternNot(pattern, null);
     }
     public static Constraint patternNot(String pattern, String message) {
-        return mkSimpleConstraint(
+        return patternNot(pattern, message, false);
+    }
+    /**
+     * @param pattern the regex
+     * @param message custom error message
+     * @param linear whether to use the linear time regex engine (see `pattern`)
+     * @return new created constraint
+     */
+    public static Constraint patternNot(String pattern, String message, boolean linear) {
+        Predicate<String> matcher = LinearPattern.matcher(pattern, linear);
+        return mkBuiltinConstraint(
             (label, vString, messages) -> {
                 logger.debug("checking pattern-not '{}' for '{}'", pattern, vString);
 
-                if (vString != null && vString.matches(pattern)) {
-                    String msgTemplate = message != null ? message : messages.get("error.patternnot");
-                    return String.format(msgTemplate, vString, pattern);
+                if (vString != null && matcher.test(vString)) {
+                    return message != null ? String.format(message, vString, pattern)
+                            : messages.format("error.patternnot", vString, pattern);
                 } else return null;
             }, mkExtensionMeta(CONSTRAINT_PATTERN_NOT, pattern));
         }
@@ -179,22 +283,22 @@ public class Constraints implements Const {
         return indexInKeys(null);
     }
     public static Constraint indexInKeys(String message) {
-        return mkConstraintWithMeta(
+        return new Deterministic(mkConstraintWithMeta(
             (name, data, messages, options) -> {
                 logger.debug("checking index in keys for '{}'", name);
 
-                String msgTemplate = message != null ? message : messages.get("error.index");
                 return data.keySet().stream()
                         .filter(key -> key.startsWith(name))
                         .map(key -> {
                             Matcher m = PATTERN_ILLEGAL_INDEX.matcher(key.substring(name.length()));
                             if (m.matches()) {
-                                return entry(key, String.format(msgTemplate, key, m.group(1)));
+                                return entry(key, message != null ? String.format(message, key, m.group(1))
+                                        : messages.format("error.index", key, m.group(1)));
                             } else return null;
                         })
                         .filter(err -> err != null)
                         .collect(Collectors.toList());
-            }, mkExtensionMeta(CONSTRAINT_INDEX_IN_KEYS));
+            }, mkExtensionMeta(CONSTRAINT_INDEX_IN_KEYS)));
         }
 
     ///////////////////////////////////  pre-defined extra constraints  //////////////////////
@@ -213,19 +317,19 @@ public class Constraints implements Const {
     }
     public static <T extends Comparable<T>> ExtraConstraint<T>
                 min(T minVal, String message, boolean withIt) {
-        return mkExtraConstraintWithMeta(
+        return new DeterministicExtra<>(mkExtraConstraintWithMeta(
             (label, value, messages) -> {
                 logger.debug("checking min value ({}) for {}", minVal, value);
 
                 if ((withIt && value.compareTo(minVal) < 0)
                         || (!withIt && value.compareTo(minVal) <= 0)) {
-                    String msgTemplate = message != null ? message : messages.get("error.min");
-                    return Arrays.asList(String.format(msgTemplate, value, minVal, withIt));
+                    return Arrays.asList(message != null ? String.format(message, value, minVal, withIt)
+                            : messages.format("error.min", value, minVal, withIt));
                 } else return Collections.emptyList();
             }, new ExtensionMeta(
                     EX_CONSTRAINT_MIN,
                     "min(" + minVal + " " + (withIt ? "w/" : "w/o") + " boundary)",
-                    Arrays.asList(minVal, withIt)));
+                    Arrays.asList(minVal, withIt))));
         }
 
     public static <T extends Comparable<T>> ExtraConstraint<T>
@@ -242,19 +346,292 @@ public class Constraints implements Const {
     }
     public static <T extends Comparable<T>> ExtraConstraint<T>
                 max(T maxVal, String message, boolean withIt) {
-        return mkExtraConstraintWithMeta(
+        return new DeterministicExtra<>(mkExtraConstraintWithMeta(
             (label, value, messages) -> {
                 logger.debug("checking max value ({}) for {}", maxVal, value);
 
                 if ((withIt && value.compareTo(maxVal) > 0)
                         || (!withIt && value.compareTo(maxVal) >= 0)) {
-                    String msgTemplate = message != null ? message : messages.get("error.max");
-                    return Arrays.asList(String.format(msgTemplate, value, maxVal, withIt));
+                    return Arrays.asList(message != null ? String.format(message, value, maxVal, withIt)
+                            : messages.format("error.max", value, maxVal, withIt));
                 } else return Collections.emptyList();
             }, new ExtensionMeta(
                 EX_CONSTRAINT_MAX,
                 "max(" + maxVal + " " + (withIt ? "w/" : "w/o") + " boundary)",
-                Arrays.asList(maxVal, withIt)));
+                Arrays.asList(maxVal, withIt))));
+        }
+
+    /**
+     * (for group mapping) cross field extra constraint, which declares the fields it reads, so the group
+     * will only convert these fields to check it (if all its extra constraints are cross field ones)
+     * e.g. `crossField((label, vObj, messages) -> ..., "password", "confirm")`
+     * NOTE: validating the group throws IllegalArgumentException, if a declared field isn't one of its fields
+     * @param validate validate function on (label, bind object w/ the declared fields, messages)
+     * @param fields names of the fields to read
+     * @return new created extra constraint
+     */
+    public static ExtraConstraint<BindObject>
+                crossField(Function3<String, BindObject, Messages, List<String>> validate, String... fields) {
+        return new CrossField(mkExtraConstraintWithMeta(validate, new ExtensionMeta(
+                    EX_CONSTRAINT_CROSS_FIELD,
+                    "crossField(" + String.join(", ", fields) + ")",
+                    Arrays.asList(fields))),
+                new HashSet<>(Arrays.asList(fields)));
+        }
+
+    /**
+     * memoize the results of an expensive but deterministic extra constraint, keyed by label and value
+     *
+     * NOTE: values w/o value equality (e.g. bind objects, or beans w/o `equals`) are checked w/o the cache,
+     *       since they would never hit; so it's useless for group level or cross field constraints
+     * @param constraint the extra constraint
+     * @param maxEntries max cached entries
+     * @param ttl time to live of a cached entry
+     * @param <T> value type
+     * @return the memoized extra constraint
+     */
+    public static <T> ExtraConstraint<T>
+                memoized(ExtraConstraint<T> constraint, int maxEntries, Duration ttl) {
+        return memoized(constraint, new ConstraintCache(maxEntries, ttl));
+    }
+    public static <T> ExtraConstraint<T>
+                memoized(ExtraConstraint<T> constraint, ConstraintCache cache) {
+        return new MemoizedExtra<>(constraint, cache);
+        }
+
+    /////////////////////////////////////////////////////////////////////////////////////
+
+    // names of the built-in constraints, which can be fused into one checker
+    private static final Set<String> FUSIBLE_NAMES = new HashSet<>(Arrays.asList(CONSTRAINT_REQUIRED,
+            CONSTRAINT_LENGTH, CONSTRAINT_MAX_LENGTH, CONSTRAINT_MIN_LENGTH, CONSTRAINT_ONE_OF,
+            CONSTRAINT_EMAIL, CONSTRAINT_PATTERN, CONSTRAINT_PATTERN_NOT));
+
+    // built-in simple constraints don't use the label, so it won't be resolved when they're fused
+    private static Constraint mkBuiltinConstraint(Function3<String, String, Messages, String> validate,
+                                                  ExtensionMeta meta) {
+        return new SimpleConstraint(validate, meta, true);
+    }
+
+    private static boolean isFusible(Constraint constraint) {
+        return (constraint instanceof Required || constraint instanceof SimpleConstraint)
+                && constraint.meta() != null && FUSIBLE_NAMES.contains(constraint.meta().name);
+    }
+
+    /**
+     * fuse adjacent built-in string constraints, so that the value will be fetched once and checked in one pass
+     * @param constraints constraints
+     * @return fused constraints
+     */
+    static List<Constraint> fuse(List<Constraint> constraints) {
+        List<Constraint> result = new ArrayList<>(constraints.size());
+        for (int i = 0, end; i < constraints.size(); i = end) {
+            end = i + 1;
+            if (isFusible(constraints.get(i))) {
+                while (end < constraints.size() && isFusible(constraints.get(end))) end++;
+            }
+            result.add(end - i > 1 ? new FusedConstraint(constraints.subList(i, end)) : constraints.get(i));
+        }
+        return result;
+    }
+
+    // marks the built-in `required` constraint, which only fails on empty value for SINGLE input
+    static final class Required implements Constraint {
+        private final Constraint constraint;
+
+        Required(Constraint constraint) {
+            this.constraint = constraint;
+        }
+
+        @Override
+        public ExtensionMeta meta() {
+            return constraint.meta();
+        }
+        @Override
+        public List<Map.Entry<String, String>> apply(String name, Map<String, String> data, Messages messages, Options options) {
+            return constraint.apply(name, data, messages, options);
+        }
+        @Override
+        public String toString() {
+            return constraint.toString();
+        }
+    }
+
+    // marks a constraint as deterministic
+    static final class Deterministic implements Constraint {
+        private final Constraint constraint;
+
+        Deterministic(Constraint constraint) {
+            this.constraint = constraint;
         }
 
+        @Override
+        public ExtensionMeta meta() {
+            return constraint.meta();
+        }
+        @Override
+        public List<Map.Entry<String, String>> apply(String name, Map<String, String> data, Messages messages, Options options) {
+            return constraint.apply(name, data, messages, options);
+        }
+        @Override
+        public String toString() {
+            return constraint.toString();
+        }
+    }
+
+    // marks an extra constraint as deterministic
+    static final class DeterministicExtra<T> implements ExtraConstraint<T> {
+        private final ExtraConstraint<T> constraint;
+
+        DeterministicExtra(ExtraConstraint<T> constraint) {
+            this.constraint = constraint;
+        }
+
+        @Override
+        public ExtensionMeta meta() {
+            return constraint.meta();
+        }
+        @Override
+        public List<String> apply(String label, T vObj, Messages messages) {
+            return constraint.apply(label, vObj, messages);
+        }
+        @Override
+        public String toString() {
+            return constraint.toString();
+        }
+    }
+
+    // memoized extra constraint, see `memoized(extraConstraint, cache)`
+    static final class MemoizedExtra<T> implements ExtraConstraint<T> {
+        private final ExtraConstraint<T> constraint;
+        private final ConstraintCache cache;
+
+        MemoizedExtra(ExtraConstraint<T> constraint, ConstraintCache cache) {
+            this.constraint = constraint;
+            this.cache = cache;
+        }
+
+        @Override
+        public ExtensionMeta meta() {
+            return constraint.meta();
+        }
+        @Override
+        public List<String> apply(String label, T vObj, Messages messages) {
+            if (!hasValueEquality(vObj)) return constraint.apply(label, vObj, messages);
+
+            List<String> errors = cache.get(constraint, label, vObj, messages);
+            if (errors == null) {
+                errors = constraint.apply(label, vObj, messages);
+                cache.put(constraint, label, vObj, messages, errors);
+            }
+            return errors;
+        }
+        @Override
+        public String toString() {
+            return constraint.toString();
+        }
+    }
+
+    private static final ClassValue<Boolean> VALUE_EQUALITY = new ClassValue<Boolean>() {
+        @Override
+        protected Boolean computeValue(Class<?> type) {
+            try {
+                return type.getMethod("equals", Object.class).getDeclaringClass() != Object.class;
+            } catch (NoSuchMethodException e) {
+                return false;
+            }
+        }
+    };
+
+    // whether the value can be a cache key, i.e. its class overrides `equals` (bind object doesn't)
+    static boolean hasValueEquality(Object value) {
+        return value == null || !(value instanceof BindObject) && VALUE_EQUALITY.get(value.getClass());
+    }
+
+    // cross field extra constraint, which only reads the declared fields
+    static final class CrossField implements ExtraConstraint<BindObject> {
+        private final ExtraConstraint<BindObject> constraint;
+        private final Set<String> fields;
+
+        CrossField(ExtraConstraint<BindObject> constraint, Set<String> fields) {
+            this.constraint = constraint;
+            this.fields = Collections.unmodifiableSet(fields);
+        }
+
+        @Override
+        public ExtensionMeta meta() {
+            return constraint.meta();
+        }
+        @Override
+        public List<String> apply(String label, BindObject vObj, Messages messages) {
+            return constraint.apply(label, vObj, messages);
+        }
+        @Override
+        public String toString() {
+            return constraint.toString();
+        }
+    }
+
+    // fields read by the extra constraints (of a group mapping), or null if not declared (all fields)
+    static Set<String> declaredFields(List<? extends ExtraConstraint<?>> constraints) {
+        Set<String> fields = new HashSet<>();
+        for (ExtraConstraint<?> constraint : constraints) {
+            while (constraint instanceof DeterministicExtra || constraint instanceof MemoizedExtra) {
+                constraint = constraint instanceof DeterministicExtra ? ((DeterministicExtra<?>) constraint).constraint
+                        : ((MemoizedExtra<?>) constraint).constraint;
+            }
+            if (constraint instanceof CrossField) fields.addAll(((CrossField) constraint).fields);
+            else return null;
+        }
+        return fields;
+    }
+
+    // checker of fused built-in constraints, which produces same errors as running them one by one
+    static final class FusedConstraint implements Constraint {
+        private final List<Constraint> constraints;
+        private final ExtensionMeta meta;
+
+        FusedConstraint(List<Constraint> constraints) {
+            this.constraints = unmodifiableList(new ArrayList<>(constraints));
+            this.meta = new ExtensionMeta("fused", constraints.stream().map(Object::toString)
+                    .collect(Collectors.joining(" :: ")), null);
+        }
+
+        @Override
+        public ExtensionMeta meta() {
+            return meta;
+        }
+        @Override
+        public List<Map.Entry<String, String>> apply(String name, Map<String, String> data, Messages messages, Options options) {
+            if (options._inputMode() != InputMode.SINGLE) {
+                return validateRec(name, data, messages, options, constraints);
+            }
+
+            boolean eager = options.eagerCheck().orElse(false);
+            String vString = data.get(name);
+            String label = null;
+            List<Map.Entry<String, String>> errors = null;
+            for (Constraint constraint : constraints) {
+                List<Map.Entry<String, String>> errors1;
+                if (constraint instanceof Required) {
+                    if (!isEmptyStr(vString)) continue;
+                    errors1 = constraint.apply(name, data, messages, options);
+                } else {
+                    SimpleConstraint simple = (SimpleConstraint) constraint;
+                    if (!simple.labelFree && label == null) label = getLabel(name, messages, options);
+                    String error = simple.validate.apply(label, vString, messages);
+                    if (isEmptyStr(error)) continue;
+                    errors1 = Arrays.asList(entry(name, error));
+                }
+
+                if (!eager) return errors1;
+                if (errors == null) errors = new ArrayList<>();
+                errors.addAll(errors1);
+            }
+            return errors == null ? Collections.emptyList() : errors;
+        }
+        @Override
+        public String toString() {
+            return meta.desc;
+        }
+    }
 }
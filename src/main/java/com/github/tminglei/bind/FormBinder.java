@@ -3,10 +3,7 @@ package com.github.tminglei.bind;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.List;
-import java.util.Map;
-import java.util.Objects;
-import java.util.Optional;
+import java.util.*;
 import java.util.function.Function;
 
 import static com.github.tminglei.bind.FrameworkUtils.*;
@@ -17,6 +14,7 @@ import static com.github.tminglei.bind.FrameworkUtils.*;
 public class FormBinder<Err> {
     private final Messages messages;
     private final Function<List<Map.Entry<String, String>>, Err> errProcessor;
+    private final ResultCache resultCache;
 
     private static final Logger logger = LoggerFactory.getLogger(FormBinder.class);
 
@@ -24,10 +22,40 @@ public class FormBinder<Err> {
         this(messages, (Function<List<Map.Entry<String, String>>, Err>) PASS_THROUGH);
     }
     public FormBinder(Messages messages, Function<List<Map.Entry<String, String>>, Err> errProcessor) {
+        this(messages, errProcessor, null);
+    }
+    private FormBinder(Messages messages, Function<List<Map.Entry<String, String>>, Err> errProcessor,
+                       ResultCache resultCache) {
         Objects.requireNonNull(messages, "messages is NULL!!");
         Objects.requireNonNull(errProcessor, "errProcessor is NULL!!");
         this.messages = messages;
         this.errProcessor = errProcessor;
+        this.resultCache = resultCache;
+    }
+
+    /**
+     * return a new binder, which caches the results of binding identical data, in a LRU cache
+     * NOTE: results are only cached for the mappings w/ only deterministic constraints/extra constraints
+     *       (see `Constraints.deterministic`); a cached bind object is shared by the hits
+     *
+     * NOTE: each entry retains a full copy of the data, the errors and the bound object, which is about
+     *       twice the size of the data's keys and values; entries are weighed so, and the least recently
+     *       used ones are evicted to keep the total under `maxBytes` (default 16 MB), while data heavier
+     *       than `maxBytes` isn't cached at all
+     * @param maxEntries max cached results
+     * @return the new binder
+     */
+    public FormBinder<Err> resultCache(int maxEntries) {
+        return resultCache(maxEntries, ResultCache.DEFAULT_MAX_BYTES);
+    }
+    /**
+     * @param maxEntries max cached results
+     * @param maxBytes max approximate bytes retained by the cached results
+     * @return the new binder
+     */
+    public FormBinder<Err> resultCache(int maxEntries, long maxBytes) {
+        return new FormBinder<>(messages, errProcessor,
+                maxEntries > 0 && maxBytes > 0 ? new ResultCache(maxEntries, maxBytes) : null);
     }
 
     /**
@@ -42,14 +70,24 @@ public class FormBinder<Err> {
     public BindObject bind(Framework.Mapping<?> mapping, Map<String, String> data, String root) {
         logger.debug("start binding ... from '{}'", root);
 
-        List<Map.Entry<String, String>> errors = mapping.validate(root, data, messages, Options.EMPTY);
+        ResultCache.Key key = cacheKey(mapping, data, root);
+        ResultCache.Result cached = key != null ? resultCache.get(key) : null;
+        if (cached != null && cached.bound != null) return cached.bound;
+
+        List<Map.Entry<String, String>> errors = cached != null ? cached.errors
+                : mapping.validate(root, data, messages, Options.EMPTY);
+        if (key != null && cached == null) errors = ResultCache.frozen(errors);
+        BindObject bound;
         if (errors.isEmpty()) {
             Object vObj = mapping.convert(root, data);
-            return vObj instanceof BindObject ? (BindObject) vObj
+            bound = vObj instanceof BindObject ? (BindObject) vObj
                     : new BindObject(newmap(entry(BindObject.DEFAULT_KEY, vObj)));
         } else {
-            return new BindObject(errProcessor.apply(errors));
+            bound = new BindObject(errProcessor.apply(errors));
         }
+
+        if (key != null) resultCache.put(key, new ResultCache.Result(errors, bound));
+        return bound;
     }
 
     /**
@@ -64,10 +102,230 @@ public class FormBinder<Err> {
     public Optional<Err> validate(Framework.Mapping<?> mapping, Map<String, String> data, String root) {
         logger.debug("start validating ... from '{}'", root);
 
-        List<Map.Entry<String, String>> errors = mapping.validate(root, data, messages, Options.EMPTY);
+        ResultCache.Key key = cacheKey(mapping, data, root);
+        ResultCache.Result cached = key != null ? resultCache.get(key) : null;
+        List<Map.Entry<String, String>> errors = cached != null ? cached.errors
+                : mapping.validate(root, data, messages, Options.EMPTY);
+        if (key != null && cached == null) {
+            errors = ResultCache.frozen(errors);
+            resultCache.put(key, new ResultCache.Result(errors, null));
+        }
+
+        if (errors.isEmpty()) return Optional.empty();
+        else {
+            return Optional.of(errProcessor.apply(errors));
+        }
+    }
+
+    /**
+     * re-validate the changed data incrementally, that is, only the mapping nodes w/ changed keys in
+     * their subtree (and group constraints/extra constraints of their ancestors) will be re-validated,
+     * and others' errors are reused from the previous result
+     * NOTE: a node is assumed to only depend on the data in its subtree; pass `previous` as null
+     *       to validate all, and get the first result
+     * @param mapping mapping
+     * @param previous previous result, or null
+     * @param data new data
+     * @param changedKeys keys changed since the previous result
+     * @return validation result
+     */
+    public ValidationResult<Err> revalidate(Framework.Mapping<?> mapping, ValidationResult<Err> previous,
+                                            Map<String, String> data, Collection<String> changedKeys) {
+        return revalidate(mapping, previous, data, changedKeys, "");
+    }
+    public ValidationResult<Err> revalidate(Framework.Mapping<?> mapping, ValidationResult<Err> previous,
+                                            Map<String, String> data, Collection<String> changedKeys, String root) {
+        logger.debug("start re-validating ... from '{}'", root);
+
+        boolean reusable = previous != null && previous.mapping == mapping && previous.root.equals(root);
+        ValidationResult.NodeErrors base = reusable ? previous.nodeErrors : ValidationResult.NodeErrors.EMPTY;
+        ValidationResult.NodeErrors nodeErrors = new ValidationResult.NodeErrors(base);
+        List<Map.Entry<String, String>> errors;
+        if (mapping instanceof Framework.GroupMapping) {
+            errors = ((Framework.GroupMapping) mapping).revalidate(root, data, messages, Options.EMPTY,
+                    base, reusable ? changedKeys : null, nodeErrors);
+        } else errors = mapping.validate(root, data, messages, Options.EMPTY);
+
+        Optional<Err> processed = errors.isEmpty() ? Optional.empty() : Optional.of(errProcessor.apply(errors));
+        return new ValidationResult<>(mapping, root, processed, nodeErrors);
+    }
+
+    /**
+     * bind the supplied fields only (PATCH-style), and merge them into an existing bind object or bean
+     * NOTE: absent fields are kept unchanged, and their constraints won't be checked; a bean will be
+     *       updated in place, and returned as the bound object's value (`get()`); supplied elements of a
+     *       list/map field are merged into the existing one by index/key, e.g. `orders[3].qty` only changes
+     *       the `qty` of the 4th order
+     * @param mapping group mapping (maybe wrapped by `map(..)`)
+     * @param data data, w/ the supplied fields only
+     * @param target existing bind object, bean, or null
+     * @return bound object, holding (processed) validation errors or merged value
+     */
+    public BindObject bindPatch(Framework.Mapping<?> mapping, Map<String, String> data, Object target) {
+        logger.debug("start binding patch ...");
+
+        if (!(Framework.unwrap(mapping) instanceof Framework.GroupMapping)) {
+            throw new IllegalArgumentException("Only group mapping can be bound partially!");
+        }
+        Framework.GroupMapping group = (Framework.GroupMapping) Framework.unwrap(mapping);
+        PatchBinding patch = new PatchBinding(Framework.indexOf(mapping), data, messages, target);
+
+        List<Map.Entry<String, String>> errors = patch.validateGroup(mapping, "", Options.EMPTY, target);
+        if (!errors.isEmpty()) return new BindObject(errProcessor.apply(errors));
+        else if (target == null || target instanceof BindObject) {
+            Object vObj = Framework.transform(mapping, patch.merged(group, "", target));
+            return vObj instanceof BindObject ? (BindObject) vObj
+                    : new BindObject(newmap(entry(BindObject.DEFAULT_KEY, vObj)));
+        } else {
+            patch.mergeInto(target, group, "");
+            return new BindObject(newmap(entry(BindObject.DEFAULT_KEY, target)));
+        }
+    }
+
+    /**
+     * validate the mapping node at the path only, e.g. `orders[3].lines[7].qty`
+     * NOTE: pre-processors of its ancestors won't be applied, so the data should be processed already
+     * @param mapping root mapping
+     * @param path concrete path of the mapping node
+     * @param data data
+     * @return (processed) validation errors
+     */
+    public Optional<Err> validateAt(Framework.Mapping<?> mapping, String path, Map<String, String> data) {
+        return validateAt(Framework.indexOf(mapping), path, data);
+    }
+    public Optional<Err> validateAt(MappingIndex index, String path, Map<String, String> data) {
+        logger.debug("start validating ... at '{}'", path);
+
+        Map.Entry<Framework.Mapping<?>, Options> node = index.resolve(path);
+        List<Map.Entry<String, String>> errors = node.getKey().validate(path, data, messages, node.getValue());
         if (errors.isEmpty()) return Optional.empty();
         else {
             return Optional.of(errProcessor.apply(errors));
         }
     }
+
+    // key of the result cache, or null if the results of the mapping can't be cached
+    private ResultCache.Key cacheKey(Framework.Mapping<?> mapping, Map<String, String> data, String root) {
+        return resultCache != null && resultCache.isCacheable(mapping)
+                ? new ResultCache.Key(mapping, root, data) : null;
+    }
+
+    /**
+     * LRU cache of bind results, keyed by (mapping identity, root, data content), and bounded by both
+     * entry count and approximate weight (in bytes)
+     * NOTE: a lookup key only hashes the data, which is copied when the key is put into the cache
+     */
+    static final class ResultCache {
+        static final long DEFAULT_MAX_BYTES = 16L * 1024 * 1024;
+        // approximate bytes of a map entry and its two strings, besides the chars
+        private static final int ENTRY_OVERHEAD = 96;
+
+        private final int maxEntries;
+        private final long maxBytes;
+        private final LinkedHashMap<Key, Result> results = new LinkedHashMap<>(16, 0.75f, true);
+        private long totalBytes;
+        private final Map<Framework.Mapping<?>, Boolean> cacheable = Collections.synchronizedMap(new WeakHashMap<>());
+
+        ResultCache(int maxEntries, long maxBytes) {
+            this.maxEntries = maxEntries;
+            this.maxBytes = maxBytes;
+        }
+
+        boolean isCacheable(Framework.Mapping<?> mapping) {
+            return cacheable.computeIfAbsent(mapping, Framework::isDeterministic);
+        }
+
+        synchronized Result get(Key key) {
+            return results.get(key);
+        }
+
+        void put(Key key, Result result) {
+            // the copied data, plus about the same for the bound object
+            long weight = weigh(key) * (result.bound != null ? 2 : 1);
+            if (weight > maxBytes) return;
+
+            Key copied = key.copied();
+            synchronized (this) {
+                Result old = results.remove(copied);
+                if (old != null) totalBytes -= old.weight;
+                result.weight = weight;
+                results.put(copied, result);
+                totalBytes += weight;
+
+                for (Iterator<Result> it = results.values().iterator();
+                     it.hasNext() && (results.size() > maxEntries || totalBytes > maxBytes); ) {
+                    totalBytes -= it.next().weight;
+                    it.remove();
+                }
+            }
+        }
+
+        private static long weigh(Key key) {
+            long weight = ENTRY_OVERHEAD + 2L * key.root.length();
+            for (Map.Entry<String, String> e : key.data.entrySet()) {
+                weight += ENTRY_OVERHEAD + 2L * e.getKey().length() + (e.getValue() != null ? 2L * e.getValue().length() : 0);
+            }
+            return weight;
+        }
+
+        // errors shared by the cache hits, so they can't be changed by callers
+        static List<Map.Entry<String, String>> frozen(List<Map.Entry<String, String>> errors) {
+            return errors.isEmpty() ? Collections.emptyList()
+                    : Collections.unmodifiableList(new ArrayList<>(errors));
+        }
+
+        synchronized int size() {
+            return results.size();
+        }
+
+        synchronized long totalBytes() {
+            return totalBytes;
+        }
+
+        ///
+        static final class Key {
+            final Framework.Mapping<?> mapping;
+            final String root;
+            final Map<String, String> data;
+            final int hash;
+
+            Key(Framework.Mapping<?> mapping, String root, Map<String, String> data) {
+                this(mapping, root, data, (System.identityHashCode(mapping) * 31 + root.hashCode()) * 31 + data.hashCode());
+            }
+            private Key(Framework.Mapping<?> mapping, String root, Map<String, String> data, int hash) {
+                this.mapping = mapping;
+                this.root = root;
+                this.data = data;
+                this.hash = hash;
+            }
+
+            // key w/ copied data, in case the data is changed later
+            Key copied() {
+                return new Key(mapping, root, new HashMap<>(data), hash);
+            }
+
+            @Override
+            public boolean equals(Object o) {
+                if (!(o instanceof Key)) return false;
+                Key other = (Key) o;
+                return mapping == other.mapping && hash == other.hash
+                        && root.equals(other.root) && data.equals(other.data);
+            }
+            @Override
+            public int hashCode() {
+                return hash;
+            }
+        }
+
+        static final class Result {
+            final List<Map.Entry<String, String>> errors;
+            final BindObject bound;     // null if only validated
+            long weight;                // set when put into the cache
+
+            Result(List<Map.Entry<String, String>> errors, BindObject bound) {
+                this.errors = errors;
+                this.bound = bound;
+            }
+        }
+    }
 }
@@ -7,6 +7,7 @@ import java.io.PrintWriter;
 import java.io.StringWriter;
 import java.util.*;
 import java.util.function.BiFunction;
+import java.util.function.BiPredicate;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
@@ -125,7 +126,7 @@ public class Framework {
         private final Function<T, R> transform;
         private final List<ExtraConstraint<R>> extraConstraints;
 
-        private final Logger logger = LoggerFactory.getLogger(TransformMapping.class);
+        private static final Logger logger = LoggerFactory.getLogger(TransformMapping.class);
 
         TransformMapping(Mapping<T> base, Function<T, R> transform) {
             this(base, transform, Collections.emptyList());
@@ -166,7 +167,8 @@ public class Framework {
         public List<Map.Entry<String, String>> validate(String name, Map<String, String> data,
                                                         Messages messages, Options parentOptions) {
             List<Map.Entry<String, String>> errors = base.validate(name, data, messages, parentOptions);
-            if (errors.isEmpty()) {
+            // only transform when there are extra constraints to check the transformed value
+            if (errors.isEmpty() && !extraConstraints.isEmpty()) {
                 return Optional.ofNullable(convert(name, data))
                         .map(v -> extraValidateRec(name, v, messages, parentOptions, extraConstraints))
                         .orElse(Collections.emptyList());
@@ -193,6 +195,65 @@ public class Framework {
         }
     }
 
+    /**
+     * A wrapper mapping, used to validate/convert the base mapping only if the condition is true
+     */
+    static final class ConditionalMapping<T> implements Mapping<T> {
+        final BiPredicate<String, Map<String, String>> condition;
+        final Mapping<T> base;
+        private final MappingMeta meta;
+
+        private static final Logger logger = LoggerFactory.getLogger(ConditionalMapping.class);
+
+        ConditionalMapping(BiPredicate<String, Map<String, String>> condition, Mapping<T> base) {
+            this.condition = condition;
+            this.base = base;
+            this.meta = new MappingMeta("when " + base.meta().name, base.meta().targetType, base);
+        }
+
+        @Override
+        public MappingMeta meta() {
+            return meta;
+        }
+
+        @Override
+        public Options options() {
+            return base.options();
+        }
+
+        @Override
+        public Mapping<T> options(Function<Options, Options> setting) {
+            return new ConditionalMapping<>(condition, base.options(setting));
+        }
+
+        @Override
+        public T convert(String name, Map<String, String> data) {
+            logger.debug("when - converting {}", name);
+            return condition.test(name, data) ? base.convert(name, data) : null;
+        }
+
+        @Override
+        public List<Map.Entry<String, String>> validate(String name, Map<String, String> data,
+                                                        Messages messages, Options parentOptions) {
+            logger.debug("when - validating {}", name);
+            return condition.test(name, data) ? base.validate(name, data, messages, parentOptions)
+                    : Collections.emptyList();
+        }
+
+        @Override
+        public void print(PrintWriter writer, int level) {
+            writer.print("when ");
+            base.print(writer, level);
+        }
+
+        @Override
+        public String toString() {
+            StringWriter writer = new StringWriter();
+            print(new PrintWriter(writer), 0);
+            return writer.toString();
+        }
+    }
+
     /**
      * In general, a field mapping is an atomic mapping, which doesn't contain other mappings
      */
@@ -201,8 +262,9 @@ public class Framework {
         private final Constraint moreValidate;
         private final BiFunction<String, Map<String, String>, T> doConvert;
         private final MappingMeta meta;
+        private final ConstraintProfiler profiler = new ConstraintProfiler();
 
-        private final Logger logger = LoggerFactory.getLogger(FieldMapping.class);
+        private static final Logger logger = LoggerFactory.getLogger(FieldMapping.class);
 
         FieldMapping(InputMode inputMode, BiFunction<String, Map<String, String>, T> doConvert,
                      MappingMeta meta) {
@@ -244,7 +306,7 @@ public class Framework {
         @Override
         public T convert(String name, Map<String, String> data) {
             logger.debug("converting {}", name);
-            Map<String, String> newData = processDataRec(name, data, options(), options()._processors());
+            Map<String, String> newData = processDataRec(name, data, options(), options()._pipeline());
             return doConvert.apply(name, newData);
         }
 
@@ -252,15 +314,24 @@ public class Framework {
         public List<Map.Entry<String, String>> validate(String name, Map<String, String> data,
                                                 Messages messages, Options parentOptions) {
             logger.debug("validating {}", name);
+            return validate(name, data, messages, parentOptions, moreValidate);
+        }
 
+        // validate w/ `moreValidate` replaced, e.g. to re-validate the elements of a list incrementally
+        List<Map.Entry<String, String>> validate(String name, Map<String, String> data, Messages messages,
+                                                 Options parentOptions, Constraint moreValidate) {
             Options theOptions = options().merge(parentOptions);
-            Map<String, String> newData = processDataRec(name, data, theOptions, theOptions._processors());
+            Map<String, String> newData = processDataRec(name, data, theOptions, theOptions._pipeline());
 
             if (isUntouchedEmpty(name, newData, theOptions)) return Collections.emptyList();
             else {
-                List<Constraint> validators = appendList(theOptions._ignoreConstraints() ? null : theOptions._constraints(), moreValidate);
-                List<Map.Entry<String, String>> errors = validateRec(name, newData, messages, theOptions, validators);
-                if (errors.isEmpty()) {
+                List<Constraint> constraints = theOptions._ignoreConstraints() ? Collections.emptyList() : theOptions._constraints();
+                List<Map.Entry<String, String>> errors = isAdaptive(theOptions, constraints)
+                        ? profiler.validate(name, newData, messages, theOptions, constraints, moreValidate)
+                        : validateRec(name, newData, messages, theOptions,
+                            appendList(theOptions._ignoreConstraints() ? null : theOptions._checks(), moreValidate));
+                // only convert when there are extra constraints to check the converted value
+                if (errors.isEmpty() && !theOptions._extraConstraints().isEmpty()) {
                     return Optional.ofNullable(doConvert.apply(name, newData))
                             .map(v -> extraValidateRec(name, v, messages, theOptions, theOptions._extraConstraints()))
                             .orElse(Collections.emptyList());
@@ -268,6 +339,14 @@ public class Framework {
             }
         }
 
+        // whether validating/converting only depends on the SINGLE input value (and label), so the
+        // results can be shared by elements of same value
+        boolean isValueScoped() {
+            return options._inputMode() == InputMode.SINGLE && moreValidate == PASS_VALIDATE
+                    && options._processors().stream().allMatch(p -> p instanceof Processors.ValueProcessor)
+                    && options._constraints().stream().allMatch(FrameworkUtils::isValueScoped);
+        }
+
         @Override
         public void print(PrintWriter writer, int level) {
             if (meta.targetType == Map.class) {
@@ -277,8 +356,8 @@ public class Framework {
                 indent(writer, level+1).print("value: ");
                 meta.baseMappings[1].print(writer, level+2);
                 indent(writer, level).println("}");
-            } else if (meta.targetType == List.class) {
-                writer.println("list [");
+            } else if (meta.targetType == List.class || meta.targetType.isArray()) {
+                writer.println(meta.targetType.isArray() ? "array [" : "list [");
                 indent(writer, level+1).print("base: ");
                 meta.baseMappings[0].print(writer, level+2);
                 indent(writer, level).println("]");
@@ -319,8 +398,12 @@ public class Framework {
         private final Options options;
         private final List<Map.Entry<String, Mapping<?>>> fields;
         private final MappingMeta meta = new MappingMeta("object", BindObject.class);
+        private final ConstraintProfiler profiler = new ConstraintProfiler();
+        // fields read by the extra constraints, or null if not declared (all fields)
+        private final Set<String> declaredFields;
+        private volatile MappingIndex index;
 
-        private final Logger logger = LoggerFactory.getLogger(GroupMapping.class);
+        private static final Logger logger = LoggerFactory.getLogger(GroupMapping.class);
 
         GroupMapping(List<Map.Entry<String, Mapping<?>>> fields) {
             this(fields, Options.EMPTY);
@@ -328,12 +411,29 @@ public class Framework {
         GroupMapping(List<Map.Entry<String, Mapping<?>>> fields, Options options) {
             this.fields = unmodifiableList(fields);
             this.options = options._inputMode(InputMode.MULTIPLE);
+            this.declaredFields = Constraints.declaredFields(this.options._extraConstraints());
+            // checked once here, since `verifying(..)`/`options(..)` build a new group mapping
+            if (declaredFields != null) {
+                Set<String> names = new HashSet<>();
+                for (Map.Entry<String, Mapping<?>> field : fields) names.add(field.getKey());
+                for (String field : declaredFields) {
+                    if (!names.contains(field))
+                        throw new IllegalArgumentException("Unknown field '" + field + "' declared by a cross field constraint, not in " + names);
+                }
+            }
         }
 
         public List<Map.Entry<String, Mapping<?>>> fields() {
             return fields;
         }
 
+        // index of the mapping tree rooted at this group, built lazily (racing builders produce equal ones)
+        MappingIndex index() {
+            MappingIndex result = index;
+            if (result == null) index = result = MappingIndex.of(this);
+            return result;
+        }
+
         @Override
         public MappingMeta meta() {
             return meta;
@@ -356,15 +456,20 @@ public class Framework {
         public BindObject convert(String name, Map<String, String> data) {
             logger.debug("converting {}", name);
 
-            Map<String, String> newData = processDataRec(name, data, options, options._processors());
+            Map<String, String> newData = processDataRec(name, data, options, options._pipeline());
             return isEmptyInput(name, newData, options._inputMode()) ? null
                     : doConvert(name, newData);
         }
 
         private BindObject doConvert(String name, Map<String, String> data) {
+            return doConvert(name, data, null);
+        }
+        // only convert the fields in `only`, if it's not null
+        private BindObject doConvert(String name, Map<String, String> data, Set<String> only) {
             Map<String, Object> values = new HashMap<>();
             if (!isEmptyInput(name, data, options._inputMode())) {
                 for(Map.Entry<String, Mapping<?>> field : fields) {
+                    if (only != null && !only.contains(field.getKey())) continue;
                     String fullName = isEmptyStr(name) ? field.getKey() : name + "." + field.getKey();
                     Object value = field.getValue().convert(fullName, data);
                     values.put(field.getKey(), value);
@@ -377,36 +482,137 @@ public class Framework {
         public List<Map.Entry<String, String>> validate(String name, Map<String, String> data,
                                                 Messages messages, Options parentOptions) {
             logger.debug("validating {}", name);
+            return validate(name, data, messages, parentOptions, fields, VALIDATE_FIELD,
+                    (data1, only) -> doConvert(name, data1, only));
+        }
 
+        /**
+         * validate the group: group constraints, then `theFields` (all, or the supplied ones of a PATCH) w/
+         * `fieldStep`, then extra constraints on the value from `toValue` (w/ the processed data, and the
+         * fields read by extra constraints, or null for all)
+         * NOTE: shared by full, incremental and partial (PATCH-style) validating, which only differ in the steps
+         */
+        List<Map.Entry<String, String>> validate(String name, Map<String, String> data, Messages messages,
+                                                 Options parentOptions, List<Map.Entry<String, Mapping<?>>> theFields,
+                                                 FieldStep fieldStep,
+                                                 BiFunction<Map<String, String>, Set<String>, BindObject> toValue) {
             Options theOptions = options().merge(parentOptions);
-            Map<String, String> newData = processDataRec(name, data, theOptions, theOptions._processors());
+            Map<String, String> newData = processDataRec(name, data, theOptions, theOptions._pipeline());
 
             if (isUntouchedEmpty(name, newData, theOptions)) return Collections.emptyList();
             else {
-                List<Constraint> validators = appendList(theOptions._constraints(),
-                        (name1, data1, messages1, options1) -> {
-                            if (isEmptyInput(name1, data1, options1._inputMode())) return Collections.emptyList();
-                            else {
-                                return fields.stream().flatMap(field -> {
-                                    String fullName = isEmptyStr(name1) ? field.getKey() : name1 + "." + field.getKey();
-                                    return field.getValue().validate(fullName, data1, messages1, options1)
-                                            .stream();
-                                }).collect(Collectors.toList());
-                            }
-                        });
-
-                List<Map.Entry<String, String>> errors = validateRec(name, newData, messages, theOptions, validators);
+                Constraint validateFields = (name1, data1, messages1, options1) -> {
+                    if (isEmptyInput(name1, data1, options1._inputMode())) return Collections.emptyList();
+                    else {
+                        List<Map.Entry<String, String>> errors = new ArrayList<>();
+                        for (Map.Entry<String, Mapping<?>> field : theFields) {
+                            String fullName = isEmptyStr(name1) ? field.getKey() : name1 + "." + field.getKey();
+                            errors.addAll(fieldStep.apply(field.getKey(), fullName, field.getValue(), data1, messages1, options1));
+                        }
+                        return errors;
+                    }
+                };
+
+                List<Map.Entry<String, String>> errors = isAdaptive(theOptions, theOptions._constraints())
+                        ? profiler.validate(name, newData, messages, theOptions, theOptions._constraints(), validateFields)
+                        : validateRec(name, newData, messages, theOptions, appendList(theOptions._checks(), validateFields));
                 if (errors.isEmpty()) {
                     if (isEmptyInput(name, newData, theOptions._inputMode())) return Collections.emptyList();
                     else {
-                        BindObject vObj = doConvert(name, newData);
-                        return extraValidateRec(name, vObj, messages, theOptions, theOptions._extraConstraints());
+                        // only convert the fields read by the extra constraints, if declared
+                        List<ExtraConstraint<BindObject>> extraConstraints = theOptions._extraConstraints();
+                        if (extraConstraints.isEmpty()) return Collections.emptyList();
+                        BindObject vObj = toValue.apply(newData, declaredFields);
+                        return extraValidateRec(name, vObj, messages, theOptions, extraConstraints);
                     }
                 }
                 return errors;
             }
         }
 
+        /**
+         * validate incrementally: group constraints/extra constraints are always re-checked, while only
+         * the fields (and elements of lists/arrays of groups) w/ changed keys in their subtree are
+         * re-validated, and others' errors are reused
+         * NOTE: `previous` and `records` are the errors of the nodes validated, keyed by their full names,
+         *       where `records` is a layer over `previous`; null `changedKeys` means all changed
+         */
+        List<Map.Entry<String, String>> revalidate(String name, Map<String, String> data, Messages messages, Options parentOptions,
+                                                   ValidationResult.NodeErrors previous, Collection<String> changedKeys,
+                                                   ValidationResult.NodeErrors records) {
+            logger.debug("re-validating {}", name);
+
+            // can't track the fields, if data was pre-processed
+            if (!options().merge(parentOptions)._processors().isEmpty()) return validate(name, data, messages, parentOptions);
+
+            return validate(name, data, messages, parentOptions, fields, (field, fullName, mapping, data1, messages1, options1) ->
+                    revalidateNode(fullName, mapping, data1, messages1, options1, previous, changedKeys, records),
+                (data1, only) -> doConvert(name, data1, only));
+        }
+
+        // re-validate the node, or reuse its previous errors (and its subtree's) if unchanged
+        private static List<Map.Entry<String, String>> revalidateNode(String fullName, Mapping<?> mapping, Map<String, String> data,
+                                                                      Messages messages, Options options,
+                                                                      ValidationResult.NodeErrors previous, Collection<String> changedKeys,
+                                                                      ValidationResult.NodeErrors records) {
+            // a conditional mapping may depend on data out of its subtree, so its condition is always re-checked
+            Mapping<?> theMapping = mapping;
+            while (theMapping instanceof ConditionalMapping && ((ConditionalMapping<?>) theMapping).condition.test(fullName, data))
+                theMapping = ((ConditionalMapping<?>) theMapping).base;
+
+            List<Map.Entry<String, String>> errors = previous.get(fullName);
+            if (theMapping instanceof ConditionalMapping) {
+                errors = Collections.emptyList();
+            } else if (errors != null && theMapping == mapping && !isChanged(fullName, changedKeys)) {
+                records.reuse(fullName, errors);
+                return errors;
+            } else if (theMapping instanceof GroupMapping) {
+                errors = ((GroupMapping) theMapping).revalidate(fullName, data, messages, options, previous, changedKeys, records);
+            } else if (isListOfGroups(theMapping)) {
+                Mapping<?> base = theMapping.meta().baseMappings[0];
+                errors = ((FieldMapping<?>) theMapping).validate(fullName, data, messages, options, (name1, data1, messages1, options1) -> {
+                    List<Map.Entry<String, String>> elemErrors = new ArrayList<>();
+                    for (int i : indexes(name1, data1)) {
+                        elemErrors.addAll(revalidateNode(name1 + "[" + i + "]", base, data1, messages1, options1,
+                                previous, changedKeys, records));
+                    }
+                    return elemErrors;
+                });
+            } else errors = theMapping.validate(fullName, data, messages, options);
+
+            records.put(fullName, errors);
+            return errors;
+        }
+
+        // list/array of (plain) groups, whose elements can be re-validated one by one
+        private static boolean isListOfGroups(Mapping<?> mapping) {
+            MappingMeta meta = mapping.meta();
+            return mapping instanceof FieldMapping && (meta.targetType == List.class || meta.targetType.isArray())
+                    && meta.baseMappings.length == 1 && meta.baseMappings[0] instanceof GroupMapping
+                    && mapping.options()._processors().isEmpty();
+        }
+
+        private static boolean isChanged(String name, Collection<String> changedKeys) {
+            if (changedKeys == null) return true;
+            for (String key : changedKeys) {
+                if (key.startsWith(name) && (key.length() == name.length()
+                        || key.charAt(name.length()) == '.' || key.charAt(name.length()) == '[')) return true;
+            }
+            return false;
+        }
+
+        /**
+         * a step to validate a field of the group, e.g. validate it, or reuse its previous errors
+         */
+        @FunctionalInterface
+        interface FieldStep {
+            List<Map.Entry<String, String>> apply(String field, String fullName, Mapping<?> mapping,
+                    Map<String, String> data, Messages messages, Options options);
+        }
+
+        static final FieldStep VALIDATE_FIELD = (field, fullName, mapping, data, messages, options) ->
+                mapping.validate(fullName, data, messages, options);
+
         @Override
         public void print(PrintWriter writer, int level) {
             writer.println("{");
@@ -450,4 +656,99 @@ public class Framework {
         }
     }
 
+    ///
+
+    // index of the mapping tree, cached by its (unwrapped) root group
+    static MappingIndex indexOf(Mapping<?> mapping) {
+        Mapping<?> theMapping = unwrap(mapping);
+        return theMapping instanceof GroupMapping ? ((GroupMapping) theMapping).index() : MappingIndex.of(mapping);
+    }
+
+    // the mapping wrapped by transform/conditional mapping(s), or the mapping itself
+    static Mapping<?> unwrap(Mapping<?> mapping) {
+        while (true) {
+            if (mapping instanceof TransformMapping) mapping = ((TransformMapping<?, ?>) mapping).base;
+            else if (mapping instanceof ConditionalMapping) mapping = ((ConditionalMapping<?>) mapping).base;
+            else return mapping;
+        }
+    }
+
+    // whether the conditions of the conditional mapping(s) wrapping the unwrapped mapping are all true
+    static boolean conditionsHold(Mapping<?> mapping, String name, Map<String, String> data) {
+        while (true) {
+            if (mapping instanceof TransformMapping) mapping = ((TransformMapping<?, ?>) mapping).base;
+            else if (mapping instanceof ConditionalMapping) {
+                if (!((ConditionalMapping<?>) mapping).condition.test(name, data)) return false;
+                mapping = ((ConditionalMapping<?>) mapping).base;
+            } else return true;
+        }
+    }
+
+    // whether there are conditional mapping(s) wrapping the unwrapped mapping
+    static boolean isConditional(Mapping<?> mapping) {
+        while (true) {
+            if (mapping instanceof TransformMapping) mapping = ((TransformMapping<?, ?>) mapping).base;
+            else return mapping instanceof ConditionalMapping;
+        }
+    }
+
+    // the mapping w/o the conditional mapping(s) in its wrappers, whose conditions are checked by the caller
+    @SuppressWarnings("unchecked")
+    static Mapping<?> withoutConditions(Mapping<?> mapping) {
+        if (mapping instanceof ConditionalMapping) {
+            return withoutConditions(((ConditionalMapping<?>) mapping).base);
+        } else if (mapping instanceof TransformMapping) {
+            TransformMapping<Object, Object> transform = (TransformMapping<Object, Object>) mapping;
+            Mapping<Object> base = (Mapping<Object>) withoutConditions(transform.base);
+            return base == transform.base ? transform
+                    : new TransformMapping<>(base, transform.transform, transform.extraConstraints);
+        } else return mapping;
+    }
+
+    // transform the value of the unwrapped mapping, by the transform mapping(s) wrapping it
+    @SuppressWarnings("unchecked")
+    static Object transform(Mapping<?> mapping, Object value) {
+        if (mapping instanceof TransformMapping) {
+            TransformMapping<Object, Object> transform = (TransformMapping<Object, Object>) mapping;
+            return transform.transform.apply(transform(transform.base, value));
+        } else if (mapping instanceof ConditionalMapping) {
+            return transform(((ConditionalMapping<?>) mapping).base, value);
+        } else return value;
+    }
+
+    // check the extra constraints of the transform mapping(s), on the transformed values of the unwrapped value
+    @SuppressWarnings("unchecked")
+    static List<Map.Entry<String, String>> extraValidateTransforms(String name, Mapping<?> mapping, Object value,
+                                                                   Messages messages, Options parentOptions) {
+        if (mapping instanceof TransformMapping) {
+            TransformMapping<Object, Object> transform = (TransformMapping<Object, Object>) mapping;
+            List<Map.Entry<String, String>> errors =
+                    extraValidateTransforms(name, transform.base, value, messages, parentOptions);
+            if (!errors.isEmpty() || transform.extraConstraints.isEmpty()) return errors;
+            return Optional.ofNullable(transform(mapping, value))
+                    .map(v -> extraValidateRec(name, v, messages, parentOptions, transform.extraConstraints))
+                    .orElse(Collections.emptyList());
+        } else if (mapping instanceof ConditionalMapping) {
+            return extraValidateTransforms(name, ((ConditionalMapping<?>) mapping).base, value, messages, parentOptions);
+        } else return Collections.emptyList();
+    }
+
+    // whether all constraints/extra constraints in the mapping tree are deterministic
+    static boolean isDeterministic(Mapping<?> mapping) {
+        if (mapping instanceof TransformMapping) {
+            TransformMapping<?, ?> transform = (TransformMapping<?, ?>) mapping;
+            return transform.extraConstraints.stream().allMatch(FrameworkUtils::isDeterministic)
+                    && isDeterministic(transform.base);
+        } else if (mapping instanceof ConditionalMapping) {
+            return isDeterministic(((ConditionalMapping<?>) mapping).base);
+        } else if (mapping instanceof GroupMapping || mapping instanceof FieldMapping) {
+            Options options = mapping.options();
+            List<Mapping<?>> children = mapping instanceof GroupMapping
+                    ? ((GroupMapping) mapping).fields().stream().map(Map.Entry::getValue).collect(Collectors.toList())
+                    : Arrays.asList(mapping.meta().baseMappings);
+            return options._constraints().stream().allMatch(FrameworkUtils::isDeterministic)
+                    && options._extraConstraints().stream().allMatch(FrameworkUtils::isDeterministic)
+                    && children.stream().allMatch(Framework::isDeterministic);
+        } else return false;
+    }
 }
@@ -6,6 +6,7 @@ import org.slf4j.LoggerFactory;
 
 import java.io.PrintWriter;
 import java.util.*;
+import java.util.concurrent.atomic.AtomicLongArray;
 import java.util.function.BiFunction;
 import java.util.function.Function;
 import java.util.regex.Matcher;
@@ -62,12 +63,63 @@ public class FrameworkUtils {
         return str == null || str.trim().equals("") || str.equalsIgnoreCase("null");
     }
 
+    // chars allowed in the local part of an email, that is, `[\w!#$%&'*+/=?`{|}~^-]`
+    private static final boolean[] EMAIL_LOCAL_CHARS = new boolean[128];
+    static {
+        for (char c = 'a'; c <= 'z'; c++) EMAIL_LOCAL_CHARS[c] = true;
+        for (char c = 'A'; c <= 'Z'; c++) EMAIL_LOCAL_CHARS[c] = true;
+        for (char c = '0'; c <= '9'; c++) EMAIL_LOCAL_CHARS[c] = true;
+        for (char c : "_!#$%&'*+/=?`{|}~^-".toCharArray()) EMAIL_LOCAL_CHARS[c] = true;
+    }
+
+    /**
+     * check whether a string is an email, same as `str.matches(PATTERN_EMAIL)`, but in one pass w/o allocation
+     * @param str the string
+     * @return true if matched
+     */
+    public static boolean isEmail(String str) {
+        int i = 0, length = str.length();
+        // local part: dot separated (non empty) atoms
+        boolean atAtomStart = true;
+        for (; i < length; i++) {
+            char c = str.charAt(i);
+            if (c == '@') break;
+            else if (c == '.') {
+                if (atAtomStart) return false;
+                atAtomStart = true;
+            } else if (c < 128 && EMAIL_LOCAL_CHARS[c]) atAtomStart = false;
+            else return false;
+        }
+        if (i == length || atAtomStart) return false;
+
+        // domain part: `[a-zA-Z0-9-]+` labels, each followed by '.', then a `[a-zA-Z]{2,6}` top level label
+        int labels = 0, labelStart = i + 1;
+        boolean allLetters = true;
+        for (i = i + 1; i < length; i++) {
+            char c = str.charAt(i);
+            if (c == '.') {
+                if (i == labelStart) return false;
+                labels++;
+                labelStart = i + 1;
+                allLetters = true;
+            } else if ((c >= '0' && c <= '9') || c == '-') allLetters = false;
+            else if (!((c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z'))) return false;
+        }
+        int topLength = length - labelStart;
+        return labels > 0 && allLetters && topLength >= 2 && topLength <= 6;
+    }
+
     public static boolean isEmptyInput(String name, Map<String, String> data, InputMode inputMode) {
         logger.trace("checking empty input for {}", name);
 
         if (inputMode == InputMode.SINGLE)
             return isEmptyStr(data.get(name));
-        else {
+        else if (data instanceof CompactDataMap && !isEmptyStr(name)) {
+            CompactDataMap compact = (CompactDataMap) data;
+            boolean noSubInput = !compact.hasKeysUnder(name + ".") && !compact.hasKeysUnder(name + "[");
+            return inputMode == InputMode.MULTIPLE ? noSubInput
+                    : isEmptyStr(data.get(name)) && noSubInput;
+        } else {
             String prefix1 = isEmptyStr(name) ? "" : name + ".";
             String prefix2 = isEmptyStr(name) ? "" : name + "[";
             long subInputCount = data.keySet().stream()
@@ -118,6 +170,36 @@ public class FrameworkUtils {
         }
     }
 
+    // keys starting with prefix; a range/subtree lookup is used if data is a (naturally ordered) sorted map
+    // or a compact data map
+    static Iterable<String> keysUnder(String prefix, Map<String, String> data) {
+        if (data instanceof CompactDataMap) {
+            return ((CompactDataMap) data).keysUnder(prefix);
+        } else if (data instanceof NavigableMap && ((NavigableMap<String, String>) data).comparator() == null) {
+            List<String> keys = new ArrayList<>();
+            for (String key : ((NavigableMap<String, String>) data).tailMap(prefix, true).keySet()) {
+                if (!key.startsWith(prefix)) break;
+                keys.add(key);
+            }
+            return keys;
+        } else if (prefix.isEmpty()) {
+            return data.keySet();
+        } else {
+            return data.keySet().stream().filter(k -> k.startsWith(prefix)).collect(Collectors.toList());
+        }
+    }
+
+    // a read-only view of data, w/ values of some existing keys replaced
+    static Map<String, String> overlay(Map<String, String> data, Map<String, String> changed) {
+        if (changed.isEmpty()) return data;
+        else if (data instanceof OverlayMap) {
+            OverlayMap overlayMap = (OverlayMap) data;
+            Map<String, String> merged = new HashMap<>(overlayMap.changed);
+            merged.putAll(changed);
+            return new OverlayMap(overlayMap.base, merged);
+        } else return new OverlayMap(data, changed);
+    }
+
     ///
 
     public static ExtensionMeta mkExtensionMeta(String name, Object... params) {
@@ -138,19 +220,42 @@ public class FrameworkUtils {
     public static Constraint
             mkSimpleConstraint(Function3<String, String, Messages, String> validate,
                                ExtensionMeta meta) {
-        return mkConstraintWithMeta(
-            (name, data, messages, options) -> {
-                if (options._inputMode() != InputMode.SINGLE) {
-                    throw new IllegalArgumentException("The constraint should only be used to SINGLE INPUT mapping!");
-                } else {
-                    String label = getLabel(name, messages, options);
-                    String error = validate.apply(label, data.get(name), messages);
-                    return isEmptyStr(error) ? Collections.emptyList()
-                            : Arrays.asList(entry(name, error));
-                }
-            }, meta);
+        return new SimpleConstraint(validate, meta, false);
+    }
+
+    // constraint made from `(label, vString, messages) => [error]`, which can be fused with others
+    static final class SimpleConstraint implements Constraint {
+        final Function3<String, String, Messages, String> validate;
+        final ExtensionMeta meta;
+        final boolean labelFree;    // whether `validate` doesn't use the label, e.g. built-in ones
+
+        SimpleConstraint(Function3<String, String, Messages, String> validate, ExtensionMeta meta, boolean labelFree) {
+            this.validate = validate;
+            this.meta = meta;
+            this.labelFree = labelFree;
         }
 
+        @Override
+        public ExtensionMeta meta() {
+            return meta;
+        }
+        @Override
+        public List<Map.Entry<String, String>> apply(String name, Map<String, String> data, Messages messages, Options options) {
+            if (options._inputMode() != InputMode.SINGLE) {
+                throw new IllegalArgumentException("The constraint should only be used to SINGLE INPUT mapping!");
+            } else {
+                String label = getLabel(name, messages, options);
+                String error = validate.apply(label, data.get(name), messages);
+                return isEmptyStr(error) ? Collections.emptyList()
+                        : Arrays.asList(entry(name, error));
+            }
+        }
+        @Override
+        public String toString() {
+            return meta == null ? "anon" : meta.desc;
+        }
+    }
+
     public static Constraint
             mkConstraintWithMeta(Function4<String, Map<String, String>, Messages, Options, List<Map.Entry<String, String>>> validate,
                                  ExtensionMeta meta) {
@@ -216,16 +321,40 @@ public class FrameworkUtils {
                 && (options.touchedChecker() == null || ! options.touchedChecker().apply(name, data));
     }
 
+    // whether the constraint only depends on the (SINGLE input) value and label, e.g. built-in simple ones
+    static boolean isValueScoped(Constraint constraint) {
+        if (constraint instanceof ConstraintProfiler.OrderSensitive)
+            return isValueScoped(((ConstraintProfiler.OrderSensitive) constraint).constraint);
+        return constraint instanceof SimpleConstraint || constraint instanceof Constraints.Required
+                || constraint instanceof Constraints.FusedConstraint;
+    }
+
+    // whether the constraint's result only depends on its inputs, see `Constraints.deterministic`
+    static boolean isDeterministic(Constraint constraint) {
+        if (constraint instanceof ConstraintProfiler.OrderSensitive)
+            return isDeterministic(((ConstraintProfiler.OrderSensitive) constraint).constraint);
+        return constraint instanceof Constraints.Deterministic || constraint instanceof Constraints.Required
+                || constraint instanceof Constraints.FusedConstraint
+                || (constraint instanceof SimpleConstraint && ((SimpleConstraint) constraint).labelFree);
+    }
+    static boolean isDeterministic(ExtraConstraint<?> constraint) {
+        return constraint instanceof Constraints.DeterministicExtra;
+    }
+
+    // whether to check the constraints in adaptive order (only if more than one, and not eager check)
+    static boolean isAdaptive(Options options, List<Constraint> constraints) {
+        return constraints.size() > 1 && options.adaptiveOrder().orElse(false)
+                && !options.eagerCheck().orElse(false);
+    }
+
     public static Map<String, String>
             processDataRec(String prefix, Map<String, String> data, Options options,
                            List<PreProcessor> remainingProcessors) {
-        if (remainingProcessors.isEmpty()) return data;
-        else {
-            PreProcessor currProcessor = remainingProcessors.get(0);
-            List<PreProcessor> newRemainingProcessors = remainingProcessors.subList(1, remainingProcessors.size());
-            Map<String, String> newData = currProcessor.apply(prefix, data, options);
-            return processDataRec(prefix, newData, options, newRemainingProcessors);
+        Map<String, String> newData = data;
+        for (PreProcessor processor : remainingProcessors) {
+            newData = processor.apply(prefix, newData, options);
         }
+        return newData;
     }
 
     public static List<Map.Entry<String, String>>
@@ -289,7 +418,7 @@ public class FrameworkUtils {
     // make a Constraint which will try to parse and collect errors
     public static <T> Constraint
             parsing(Function<String, T> parse, String messageOrKey, boolean isKey, String... extraMessageArgs) {
-        return mkSimpleConstraint(((label, vString, messages) -> {
+        return new SimpleConstraint(((label, vString, messages) -> {
             logger.debug("checking for {}", vString);
 
             if (isEmptyStr(vString)) return null;
@@ -298,39 +427,97 @@ public class FrameworkUtils {
                     parse.apply(vString);
                     return null;
                 } catch (Exception ex) {
-                    String msgTemplate = isKey ? messages.get(messageOrKey) : messageOrKey;
-                    List<String> messageArgs = appendList(Arrays.asList(vString), extraMessageArgs);
-                    return String.format(msgTemplate, messageArgs.toArray());
+                    Object[] messageArgs = appendList(Arrays.asList(vString), extraMessageArgs).toArray();
+                    return isKey ? messages.format(messageOrKey, messageArgs)
+                            : String.format(messageOrKey, messageArgs);
                 }
             }
-        }), new ExtensionMeta("anon", "try parse", null));
+        }), new ExtensionMeta("anon", "try parse", null), true);
     }
 
     // make a compound Constraint, which checks whether any inputting constraints passed
+    // NOTE: branches are first checked w/o formatting error messages; only if all of them failed,
+    //       they will be re-checked to collect the error messages
     public static Constraint anyPassed(Constraint... constraints) {
-        return ((name, data, messages, options) -> {
+        return anyPassed(false, constraints);
+    }
+    // if `promote` is true, the branch passed most often will be checked first
+    public static Constraint anyPassed(boolean promote, Constraint... constraints) {
+        AnyPassedOrder order = promote ? new AnyPassedOrder(constraints.length) : null;
+        Constraint anyPassed = ((name, data, messages, options) -> {
             logger.debug("checking any passed for {}", name);
 
+            int[] indexes = order != null ? order.indexes : null;
+            for (int i = 0; i < constraints.length; i++) {
+                int index = indexes != null ? indexes[i] : i;
+                if (constraints[index].apply(name, data, SILENT_MESSAGES, options).isEmpty()) {
+                    if (order != null) order.passed(index);
+                    return Collections.emptyList();
+                }
+            }
+
             List<Map.Entry<String, String>> errErrors = new ArrayList<>();
             for(Constraint constraint : constraints) {
-                List<Map.Entry<String, String>> errors = constraint.apply(name, data, messages, options);
-                if (errors.isEmpty()) return Collections.emptyList();
-                else {
-                    errErrors.addAll(errors);
-                }
+                errErrors.addAll(constraint.apply(name, data, messages, options));
             }
 
             String label = getLabel(name, messages, options);
             String errStr = errErrors.stream().map(e -> e.getValue())
                     .collect(Collectors.joining(", ", "[", "]"));
             return Arrays.asList(entry(name,
-                    String.format(messages.get("error.anypassed"), label, errStr)));
+                    messages.format("error.anypassed", label, errStr)));
         });
+        return Arrays.stream(constraints).allMatch(FrameworkUtils::isDeterministic)
+                ? new Constraints.Deterministic(anyPassed) : anyPassed;
+    }
+
+    // used to check constraints, w/o formatting error messages (NOTE: empty error means passed)
+    private static final Messages SILENT_MESSAGES = new Messages() {
+        @Override
+        public String get(String key) {
+            return "?";
+        }
+        @Override
+        public String format(String key, Object... args) {
+            return "?";
+        }
+    };
+
+    // branch order of `anyPassed`, by pass counts descending
+    private static final class AnyPassedOrder {
+        final AtomicLongArray passes;
+        volatile int[] indexes;
+
+        AnyPassedOrder(int size) {
+            this.passes = new AtomicLongArray(size);
+            this.indexes = new int[size];
+            for (int i = 0; i < size; i++) indexes[i] = i;
+        }
+
+        // move the passed branch one step ahead, if it passed more often than its predecessor
+        void passed(int index) {
+            long count = passes.incrementAndGet(index);
+            int[] indexes = this.indexes;
+            if (indexes[0] == index) return;
+
+            for (int i = 1; i < indexes.length; i++) {
+                if (indexes[i] == index) {
+                    if (count > passes.get(indexes[i - 1])) {
+                        int[] newIndexes = indexes.clone();
+                        newIndexes[i] = newIndexes[i - 1];
+                        newIndexes[i - 1] = index;
+                        this.indexes = newIndexes;
+                    }
+                    return;
+                }
+            }
+        }
     }
 
     // Computes the available indexes for the given key in this set of data.
     public static List<Integer> indexes(String name, Map<String, String> data) {
         logger.debug("get indexes for {}", name);
+        if (data instanceof CompactDataMap) return ((CompactDataMap) data).indexes(name);
         // matches: 'prefix[index]...'
         Pattern keyPattern = Pattern.compile("^" + Pattern.quote(name) + "\\[(\\d+)\\].*$");
         return data.keySet().stream()
@@ -359,25 +546,90 @@ public class FrameworkUtils {
                 .collect(Collectors.toList());
     }
 
+    // Construct data map from inputting json text, w/o depending on jackson
+    public static Map<String, String> json2map(String prefix, String json) {
+        return json2map(prefix, json, JsonFlattener.DEFAULT_MAX_DEPTH);
+    }
+    public static Map<String, String> json2map(String prefix, String json, int maxDepth) {
+        logger.trace("json text to map - prefix: {}", prefix);
+
+        Map<String, String> result = new HashMap<>();
+        JsonFlattener.flatten(prefix, json, result, maxDepth);
+        return result;
+    }
+
     // Construct data map from inputting jackson json object
     public static Map<String, String> json2map(String prefix, JsonNode json) {
         logger.trace("json to map - prefix: {}", prefix);
 
+        Map<String, String> result = new HashMap<>();
+        json2map(prefix, json, result);
+        return result;
+    }
+    private static void json2map(String prefix, JsonNode json, Map<String, String> result) {
         if (json.isArray()) {
-            Map<String, String> result = new HashMap<>();
             for(int i=0; i <json.size(); i++) {
-                result.putAll(json2map(prefix +"["+i+"]", json.get(i)));
+                json2map(prefix +"["+i+"]", json.get(i), result);
             }
-            return result;
         } else if (json.isObject()) {
-            Map<String, String> result = new HashMap<>();
             json.fields().forEachRemaining(e -> {
                 String newPrefix = isEmptyStr(prefix) ? e.getKey() : prefix + "." + e.getKey();
-                result.putAll(json2map(newPrefix, e.getValue()));
+                json2map(newPrefix, e.getValue(), result);
             });
-            return result;
         } else {
-            return newmap(entry(prefix, json.asText()));
+            result.put(prefix, json.asText());
+        }
+    }
+
+    ///
+    static final class OverlayMap extends AbstractMap<String, String> {
+        private final Map<String, String> base;
+        private final Map<String, String> changed;  // keys should all exist in base
+
+        OverlayMap(Map<String, String> base, Map<String, String> changed) {
+            this.base = base;
+            this.changed = changed;
+        }
+
+        @Override
+        public String get(Object key) {
+            return changed.containsKey(key) ? changed.get(key) : base.get(key);
+        }
+        @Override
+        public boolean containsKey(Object key) {
+            return base.containsKey(key);
+        }
+        @Override
+        public int size() {
+            return base.size();
+        }
+        @Override
+        public Set<String> keySet() {
+            return Collections.unmodifiableSet(base.keySet());
+        }
+        @Override
+        public Set<Entry<String, String>> entrySet() {
+            return new AbstractSet<Entry<String, String>>() {
+                @Override
+                public Iterator<Entry<String, String>> iterator() {
+                    Iterator<Entry<String, String>> it = base.entrySet().iterator();
+                    return new Iterator<Entry<String, String>>() {
+                        @Override
+                        public boolean hasNext() {
+                            return it.hasNext();
+                        }
+                        @Override
+                        public Entry<String, String> next() {
+                            Entry<String, String> e = it.next();
+                            return changed.containsKey(e.getKey()) ? entry(e.getKey(), changed.get(e.getKey())) : e;
+                        }
+                    };
+                }
+                @Override
+                public int size() {
+                    return base.size();
+                }
+            };
         }
     }
 }
@@ -0,0 +1,238 @@
+package com.github.tminglei.bind;
+
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * streaming json reader, which writes flattened (path, value) entries directly into a target map,
+ * e.g. `{"a": {"b": [1, "x"]}}` -+ (a.b[0], 1), (a.b[1], x)
+ *
+ * NOTE: scalar values are kept as their json text (strings unescaped), and `null` is kept as "null";
+ *       empty objects/arrays produce no entries
+ */
+final class JsonFlattener {
+    static final int DEFAULT_MAX_DEPTH = 256;
+
+    private final CharSequence json;
+    private final Map<String, String> target;
+    private final int maxDepth;
+    private final StringBuilder path;
+    private final StringBuilder buffer = new StringBuilder();
+    private int pos = 0;
+
+    // per nesting level: path length of the container, whether it's an array, and current element index
+    private int depth = 0;
+    private int[] pathLengths = new int[16];
+    private boolean[] arrays = new boolean[16];
+    private int[] indexes = new int[16];
+
+    private JsonFlattener(String prefix, CharSequence json, Map<String, String> target, int maxDepth) {
+        this.json = json;
+        this.target = target;
+        this.maxDepth = maxDepth;
+        this.path = new StringBuilder(prefix == null ? "" : prefix);
+    }
+
+    /**
+     * flatten json text into target map
+     * @param prefix path prefix
+     * @param json json text
+     * @param target target map
+     * @param maxDepth max nesting depth of objects/arrays
+     * @throws IllegalArgumentException if the json text is illegal or too deep
+     */
+    static void flatten(String prefix, CharSequence json, Map<String, String> target, int maxDepth) {
+        new JsonFlattener(prefix, json, target, maxDepth).run();
+    }
+
+    private void run() {
+        boolean expectValue = true;
+        while (true) {
+            if (expectValue) {
+                char c = nextToken();
+                if (c == '{' || c == '[') {
+                    push(c == '[');
+                    if (peekToken() == (c == '[' ? ']' : '}')) {
+                        pos++;
+                        depth--;
+                    } else {
+                        startMember();
+                        continue;
+                    }
+                } else {
+                    target.put(path.toString(), scalar(c));
+                }
+            }
+
+            // after a value
+            if (depth == 0) break;
+            char c = nextToken();
+            if (c == ',') {
+                indexes[depth - 1]++;
+                startMember();
+                expectValue = true;
+            } else if (c == (arrays[depth - 1] ? ']' : '}')) {
+                depth--;
+                expectValue = false;
+            } else throw error("expect ',' or '" + (arrays[depth - 1] ? ']' : '}') + "'");
+        }
+
+        skipWhitespaces();
+        if (pos < json.length()) throw error("unexpected trailing content");
+    }
+
+    private void push(boolean isArray) {
+        if (depth >= maxDepth) throw error("exceed max depth " + maxDepth);
+        if (depth == pathLengths.length) {
+            pathLengths = Arrays.copyOf(pathLengths, depth * 2);
+            arrays = Arrays.copyOf(arrays, depth * 2);
+            indexes = Arrays.copyOf(indexes, depth * 2);
+        }
+        // same as `isEmptyStr(prefix) ? key : prefix + "." + key` for object members
+        if (!isArray && isEmptyPath()) path.setLength(0);
+        pathLengths[depth] = path.length();
+        arrays[depth] = isArray;
+        indexes[depth] = 0;
+        depth++;
+    }
+
+    // reset path to the current container, then append the member's name/index
+    private void startMember() {
+        int level = depth - 1;
+        path.setLength(pathLengths[level]);
+        if (arrays[level]) {
+            path.append('[').append(indexes[level]).append(']');
+        } else {
+            if (nextToken() != '"') throw error("expect a field name");
+            String name = string();
+            if (nextToken() != ':') throw error("expect ':'");
+            if (path.length() > 0) path.append('.');
+            path.append(name);
+        }
+    }
+
+    private String scalar(char c) {
+        switch (c) {
+            case '"': return string();
+            case 't': return literal("true");
+            case 'f': return literal("false");
+            case 'n': return literal("null");
+            default:
+                if (c == '-' || (c >= '0' && c <= '9')) return number();
+                else throw error("unexpected char '" + c + "'");
+        }
+    }
+
+    private String literal(String expected) {
+        int start = pos - 1;
+        for (int i = 1; i < expected.length(); i++, pos++) {
+            if (pos >= json.length() || json.charAt(pos) != expected.charAt(i))
+                throw error("expect '" + expected + "'", start);
+        }
+        return expected;
+    }
+
+    private String number() {
+        int start = pos - 1;    // the first char was consumed
+        if (json.charAt(start) == '-') {
+            if (pos < json.length() && json.charAt(pos) == '0') pos++;
+            else digits(true);
+        } else if (json.charAt(start) != '0') digits(false);
+        if (pos < json.length() && json.charAt(pos) == '.') {
+            pos++;
+            digits(true);
+        }
+        if (pos < json.length() && (json.charAt(pos) == 'e' || json.charAt(pos) == 'E')) {
+            pos++;
+            if (pos < json.length() && (json.charAt(pos) == '+' || json.charAt(pos) == '-')) pos++;
+            digits(true);
+        }
+        return json.subSequence(start, pos).toString();
+    }
+
+    private void digits(boolean required) {
+        int start = pos;
+        while (pos < json.length() && json.charAt(pos) >= '0' && json.charAt(pos) <= '9') pos++;
+        if (required && pos == start) throw error("expect a digit");
+    }
+
+    // read string content after the opening quote
+    private String string() {
+        int start = pos;
+        while (pos < json.length()) {
+            char c = json.charAt(pos);
+            if (c == '"') return json.subSequence(start, pos++).toString();
+            else if (c == '\\') break;
+            else if (c < 0x20) throw error("unescaped control char in string");
+            pos++;
+        }
+
+        buffer.setLength(0);
+        buffer.append(json, start, pos);
+        while (pos < json.length()) {
+            char c = json.charAt(pos++);
+            if (c == '"') return buffer.toString();
+            else if (c < 0x20) throw error("unescaped control char in string");
+            else if (c != '\\') buffer.append(c);
+            else {
+                if (pos >= json.length()) break;
+                char e = json.charAt(pos++);
+                switch (e) {
+                    case '"': case '\\': case '/': buffer.append(e); break;
+                    case 'b': buffer.append('\b'); break;
+                    case 'f': buffer.append('\f'); break;
+                    case 'n': buffer.append('\n'); break;
+                    case 'r': buffer.append('\r'); break;
+                    case 't': buffer.append('\t'); break;
+                    case 'u':
+                        if (pos + 4 > json.length()) throw error("illegal unicode escape");
+                        int code = 0;
+                        for (int i = 0; i < 4; i++) {
+                            int d = Character.digit(json.charAt(pos++), 16);
+                            if (d < 0) throw error("illegal unicode escape");
+                            code = code * 16 + d;
+                        }
+                        buffer.append((char) code);
+                        break;
+                    default: throw error("illegal escape char '" + e + "'");
+                }
+            }
+        }
+        throw error("unclosed string", start - 1);
+    }
+
+    private boolean isEmptyPath() {
+        int len = path.length();
+        if (len == 4 && "null".equalsIgnoreCase(path.toString())) return true;
+        for (int i = 0; i < len; i++) {
+            if (path.charAt(i) > ' ') return false;
+        }
+        return true;
+    }
+
+    private void skipWhitespaces() {
+        while (pos < json.length()) {
+            char c = json.charAt(pos);
+            if (c == ' ' || c == '\t' || c == '\n' || c == '\r') pos++;
+            else break;
+        }
+    }
+
+    private char nextToken() {
+        skipWhitespaces();
+        if (pos >= json.length()) throw error("unexpected end of input");
+        return json.charAt(pos++);
+    }
+
+    private char peekToken() {
+        skipWhitespaces();
+        return pos < json.length() ? json.charAt(pos) : 0;
+    }
+
+    private IllegalArgumentException error(String message) {
+        return error(message, pos);
+    }
+    private IllegalArgumentException error(String message, int position) {
+        return new IllegalArgumentException("Illegal json at position " + position + ": " + message);
+    }
+}
@@ -0,0 +1,563 @@
+package com.github.tminglei.bind;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+
+/**
+ * regex matcher w/ guaranteed linear time (in the input length), used as an alternative of `String.matches`
+ *
+ * a pattern is compiled to an NFA, which is run as a DFA, w/ DFA states built lazily and cached (bounded);
+ * only a subset of java regex is supported: literals, escapes, char classes (w/o union/intersection), `.`,
+ * groups, alternations, greedy/lazy quantifiers, and `^`/`$` at the start/end of the pattern
+ */
+final class LinearPattern {
+    private static final Logger logger = LoggerFactory.getLogger(LinearPattern.class);
+
+    static final int MAX_NFA_STATES = 10000;
+    static final int MAX_DFA_STATES = 2000;
+    static final int MAX_REPEAT = 1000;
+
+    private static final int CHAR = 0, SPLIT = 1, MATCH = 2;
+
+    private final String regex;
+    // nfa states
+    private final int[] kinds;
+    private final CharClass[] classes;
+    private final int[] outs;
+    private final int[] outs1;
+    // lazily built dfa states, keyed by their nfa state sets
+    private final Map<DState, DState> dstates = new ConcurrentHashMap<>();
+    private final DState start;
+
+    /**
+     * @param regex the regex
+     * @throws UnsupportedOperationException if the regex uses unsupported features
+     */
+    LinearPattern(String regex) {
+        this.regex = regex;
+        Node node = new Parser(regex).parse();
+
+        Builder builder = new Builder();
+        int match = builder.add(MATCH, null, -1, -1);
+        int first = builder.compile(node, match);
+        this.kinds = Arrays.copyOf(builder.kinds, builder.size);
+        this.classes = Arrays.copyOf(builder.classes, builder.size);
+        this.outs = Arrays.copyOf(builder.outs, builder.size);
+        this.outs1 = Arrays.copyOf(builder.outs1, builder.size);
+
+        boolean[] seen = new boolean[kinds.length];
+        IntList states = new IntList();
+        closure(first, seen, states);
+        this.start = intern(states.toSortedArray());
+    }
+
+    /**
+     * make a predicate to check whether a string matches the regex entirely, same as `String.matches`
+     * @param regex the regex
+     * @param linear whether to use the linear engine; if the regex isn't supported by it, a warning
+     *               will be logged, and `java.util.regex` will be used instead
+     * @return the predicate
+     * @throws java.util.regex.PatternSyntaxException if the regex is illegal
+     */
+    static Predicate<String> matcher(String regex, boolean linear) {
+        Pattern pattern = Pattern.compile(regex);
+        if (linear) {
+            try {
+                LinearPattern linearPattern = new LinearPattern(regex);
+                return linearPattern::matches;
+            } catch (UnsupportedOperationException e) {
+                logger.warn("regex '{}' isn't supported by linear engine ({}), fall back to java.util.regex",
+                        regex, e.getMessage());
+            }
+        }
+        return vString -> pattern.matcher(vString).matches();
+    }
+
+    boolean matches(CharSequence input) {
+        DState state = start;
+        for (int i = 0; i < input.length(); ) {
+            int cp = Character.codePointAt(input, i);
+            i += Character.charCount(cp);
+            state = next(state, cp);
+            if (state.states.length == 0) return false;
+        }
+        return state.accept;
+    }
+
+    @Override
+    public String toString() {
+        return regex;
+    }
+
+    /////////////////////////////////////////////////////////////////////////////////////
+
+    private DState next(DState state, int cp) {
+        if (cp < 128 && state.cached) {
+            DState next = state.ascii[cp];
+            if (next != null) return next;
+        }
+
+        boolean[] seen = new boolean[kinds.length];
+        IntList states = new IntList();
+        for (int s : state.states) {
+            if (kinds[s] == CHAR && classes[s].matches(cp)) closure(outs[s], seen, states);
+        }
+        DState next = intern(states.toSortedArray());
+        // only cached states are linked, to keep the memory bounded
+        if (cp < 128 && state.cached && next.cached) state.ascii[cp] = next;
+        return next;
+    }
+
+    private DState intern(int[] states) {
+        DState state = new DState(states, isAccept(states), false);
+        DState cached = dstates.get(state);
+        if (cached != null) return cached;
+        else if (dstates.size() >= MAX_DFA_STATES) return state;
+        else {
+            DState state1 = new DState(states, state.accept, true);
+            cached = dstates.putIfAbsent(state1, state1);
+            return cached != null ? cached : state1;
+        }
+    }
+
+    private boolean isAccept(int[] states) {
+        for (int s : states) {
+            if (kinds[s] == MATCH) return true;
+        }
+        return false;
+    }
+
+    // collect CHAR/MATCH states reachable from `s` through SPLITs
+    private void closure(int s, boolean[] seen, IntList result) {
+        IntList stack = new IntList();
+        stack.add(s);
+        while (stack.size > 0) {
+            int s1 = stack.values[--stack.size];
+            if (seen[s1]) continue;
+            seen[s1] = true;
+            if (kinds[s1] == SPLIT) {
+                stack.add(outs1[s1]);
+                stack.add(outs[s1]);
+            } else result.add(s1);
+        }
+    }
+
+    private static final class DState {
+        final int[] states;
+        final boolean accept;
+        final boolean cached;
+        final DState[] ascii;
+
+        DState(int[] states, boolean accept, boolean cached) {
+            this.states = states;
+            this.accept = accept;
+            this.cached = cached;
+            this.ascii = cached ? new DState[128] : null;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof DState && Arrays.equals(states, ((DState) o).states);
+        }
+        @Override
+        public int hashCode() {
+            return Arrays.hashCode(states);
+        }
+    }
+
+    private static final class IntList {
+        int[] values = new int[8];
+        int size = 0;
+
+        void add(int value) {
+            if (size == values.length) values = Arrays.copyOf(values, size * 2);
+            values[size++] = value;
+        }
+        int[] toSortedArray() {
+            int[] result = Arrays.copyOf(values, size);
+            Arrays.sort(result);
+            return result;
+        }
+    }
+
+    ///--- nfa building
+
+    private static final class Builder {
+        int[] kinds = new int[16];
+        CharClass[] classes = new CharClass[16];
+        int[] outs = new int[16];
+        int[] outs1 = new int[16];
+        int size = 0;
+
+        int add(int kind, CharClass cc, int out, int out1) {
+            if (size == MAX_NFA_STATES) throw new UnsupportedOperationException("too many states");
+            if (size == kinds.length) {
+                kinds = Arrays.copyOf(kinds, size * 2);
+                classes = Arrays.copyOf(classes, size * 2);
+                outs = Arrays.copyOf(outs, size * 2);
+                outs1 = Arrays.copyOf(outs1, size * 2);
+            }
+            kinds[size] = kind;
+            classes[size] = cc;
+            outs[size] = out;
+            outs1[size] = out1;
+            return size++;
+        }
+
+        // compile `node` backwards, w/ its end linked to `next`, and return its start
+        int compile(Node node, int next) {
+            if (node instanceof CharNode) {
+                return add(CHAR, ((CharNode) node).cc, next, -1);
+            } else if (node instanceof Concat) {
+                List<Node> items = ((Concat) node).items;
+                for (int i = items.size() - 1; i >= 0; i--) next = compile(items.get(i), next);
+                return next;
+            } else if (node instanceof Alt) {
+                List<Node> alts = ((Alt) node).alts;
+                int result = compile(alts.get(alts.size() - 1), next);
+                for (int i = alts.size() - 2; i >= 0; i--) result = add(SPLIT, null, compile(alts.get(i), next), result);
+                return result;
+            } else {
+                Repeat repeat = (Repeat) node;
+                int current = next;
+                if (repeat.max < 0) {
+                    int loop = add(SPLIT, null, -1, next);
+                    int body = compile(repeat.node, loop);    // NOTE: `outs` may be re-allocated when compiling
+                    outs[loop] = body;
+                    current = loop;
+                } else {
+                    for (int i = repeat.min; i < repeat.max; i++) current = add(SPLIT, null, compile(repeat.node, current), next);
+                }
+                for (int i = 0; i < repeat.min; i++) current = compile(repeat.node, current);
+                return current;
+            }
+        }
+    }
+
+    ///--- parsing
+
+    private interface Node {}
+
+    private static final class CharNode implements Node {
+        final CharClass cc;
+        CharNode(CharClass cc) {
+            this.cc = cc;
+        }
+    }
+    private static final class Concat implements Node {
+        final List<Node> items;
+        Concat(List<Node> items) {
+            this.items = items;
+        }
+    }
+    private static final class Alt implements Node {
+        final List<Node> alts;
+        Alt(List<Node> alts) {
+            this.alts = alts;
+        }
+    }
+    private static final class Repeat implements Node {
+        final Node node;
+        final int min;
+        final int max;  // -1: unbounded
+        Repeat(Node node, int min, int max) {
+            this.node = node;
+            this.min = min;
+            this.max = max;
+        }
+    }
+
+    private static final class Parser {
+        private final String regex;
+        private int pos = 0;
+        private int depth = 0;
+        private int anchors = 0;
+
+        Parser(String regex) {
+            this.regex = regex;
+        }
+
+        Node parse() {
+            Node node = alternation(true);
+            if (pos < regex.length()) throw unsupported("unbalanced ')'");
+            return node;
+        }
+
+        private Node alternation(boolean atStart) {
+            List<Node> alts = new ArrayList<>();
+            alts.add(concat(atStart));
+            while (pos < regex.length() && regex.charAt(pos) == '|') {
+                pos++;
+                alts.add(concat(atStart));
+            }
+            return alts.size() == 1 ? alts.get(0) : new Alt(alts);
+        }
+
+        private Node concat(boolean atStart) {
+            List<Node> items = new ArrayList<>();
+            while (pos < regex.length() && regex.charAt(pos) != '|' && regex.charAt(pos) != ')') {
+                char c = regex.charAt(pos);
+                if (c == '^') {
+                    if (!atStart) throw unsupported("'^' not at start");
+                    pos++;
+                    anchors++;
+                } else if (c == '$') {
+                    pos++;
+                    if (!isAtEnd()) throw unsupported("'$' not at end");
+                    anchors++;
+                } else {
+                    int anchors0 = anchors;
+                    Node atom = atom(atStart);
+                    items.add(quantified(atom, anchors > anchors0));
+                    atStart = false;
+                }
+            }
+            return items.size() == 1 ? items.get(0) : new Concat(items);
+        }
+
+        // only ')'s left, or a top level '|' follows
+        private boolean isAtEnd() {
+            if (pos < regex.length() && regex.charAt(pos) == '|') return depth == 0;
+            for (int i = pos; i < regex.length(); i++) {
+                if (regex.charAt(i) != ')') return false;
+            }
+            return true;
+        }
+
+        private Node atom(boolean atStart) {
+            int c = regex.codePointAt(pos);
+            pos += Character.charCount(c);
+            switch (c) {
+                case '(':
+                    if (regex.startsWith("?:", pos)) pos += 2;
+                    else if (regex.startsWith("?<", pos) && !regex.startsWith("?<=", pos) && !regex.startsWith("?<!", pos)) {
+                        pos = regex.indexOf('>', pos) + 1;
+                        if (pos == 0) throw unsupported("unclosed group name");
+                    } else if (regex.startsWith("?", pos)) throw unsupported("special group");
+                    depth++;
+                    Node node = alternation(atStart);
+                    if (pos >= regex.length()) throw unsupported("unclosed group");
+                    pos++;
+                    depth--;
+                    return node;
+                case '[':
+                    return new CharNode(charClass());
+                case '.':
+                    return new CharNode(CharClass.DOT);
+                case '\\':
+                    Object escaped = escape();
+                    return new CharNode(escaped instanceof CharClass ? (CharClass) escaped
+                            : CharClass.of(false, (Integer) escaped, (Integer) escaped));
+                case '*': case '+': case '?': case '{':
+                    throw unsupported("dangling quantifier");
+                default:
+                    return new CharNode(CharClass.of(false, c, c));
+            }
+        }
+
+        private Node quantified(Node atom, boolean hasAnchor) {
+            if (pos >= regex.length()) return atom;
+            int min, max;
+            switch (regex.charAt(pos)) {
+                case '*': min = 0; max = -1; pos++; break;
+                case '+': min = 1; max = -1; pos++; break;
+                case '?': min = 0; max = 1; pos++; break;
+                case '{':
+                    int end = regex.indexOf('}', pos);
+                    if (end < 0) throw unsupported("illegal repetition");
+                    String[] bounds = regex.substring(pos + 1, end).split(",", -1);
+                    try {
+                        min = Integer.parseInt(bounds[0]);
+                        max = bounds.length == 1 ? min : bounds[1].isEmpty() ? -1 : Integer.parseInt(bounds[1]);
+                    } catch (NumberFormatException e) {
+                        throw unsupported("illegal repetition");
+                    }
+                    if (bounds.length > 2 || min > MAX_REPEAT || max > MAX_REPEAT || (max >= 0 && max < min))
+                        throw unsupported("illegal/large repetition");
+                    pos = end + 1;
+                    break;
+                default:
+                    return atom;
+            }
+            if (pos < regex.length() && regex.charAt(pos) == '?') pos++;    // lazy, same result for entire match
+            else if (pos < regex.length() && regex.charAt(pos) == '+') throw unsupported("possessive quantifier");
+            if (pos < regex.length() && "*+?{".indexOf(regex.charAt(pos)) >= 0) throw unsupported("nested quantifier");
+            if (hasAnchor && max != 1) throw unsupported("repeated anchor");
+            return new Repeat(atom, min, max);
+        }
+
+        private CharClass charClass() {
+            boolean negate = pos < regex.length() && regex.charAt(pos) == '^';
+            if (negate) pos++;
+            List<int[]> ranges = new ArrayList<>();
+            for (boolean first = true; ; first = false) {
+                if (pos >= regex.length()) throw unsupported("unclosed class");
+                char c = regex.charAt(pos);
+                if (c == ']') {
+                    if (first) throw unsupported("empty class");
+                    pos++;
+                    return CharClass.of(negate, ranges);
+                } else if (c == '[') throw unsupported("nested class");
+                else if (regex.startsWith("&&", pos)) throw unsupported("class intersection");
+
+                int lo = classChar(ranges);
+                if (lo < 0) continue;   // predefined class added
+                if (regex.startsWith("-", pos) && pos + 1 < regex.length() && regex.charAt(pos + 1) != ']') {
+                    pos++;
+                    if (regex.charAt(pos) == '[') throw unsupported("nested class");
+                    int hi = classChar(null);
+                    if (hi < lo) throw unsupported("illegal class range");
+                    ranges.add(new int[]{ lo, hi });
+                } else ranges.add(new int[]{ lo, lo });
+            }
+        }
+
+        // read a char in class; for predefined class, add its ranges and return -1
+        private int classChar(List<int[]> ranges) {
+            int c = regex.codePointAt(pos);
+            pos += Character.charCount(c);
+            if (c != '\\') return c;
+
+            Object escaped = escape();
+            if (escaped instanceof Integer) return (Integer) escaped;
+            if (ranges == null) throw unsupported("illegal class range");
+            ranges.addAll(((CharClass) escaped).ranges());
+            return -1;
+        }
+
+        // read an escape (after '\'), as a code point (Integer) or a CharClass
+        private Object escape() {
+            if (pos >= regex.length()) throw unsupported("trailing '\\'");
+            int c = regex.codePointAt(pos);
+            pos += Character.charCount(c);
+            switch (c) {
+                case 'd': return CharClass.DIGIT;
+                case 'D': return CharClass.DIGIT.negate();
+                case 'w': return CharClass.WORD;
+                case 'W': return CharClass.WORD.negate();
+                case 's': return CharClass.SPACE;
+                case 'S': return CharClass.SPACE.negate();
+                case 't': return (int) '\t';
+                case 'n': return (int) '\n';
+                case 'r': return (int) '\r';
+                case 'f': return (int) '\f';
+                case 'a': return 0x07;
+                case 'e': return 0x1B;
+                case '0':
+                    int octal = 0, digits = 0;
+                    while (digits < 3 && pos < regex.length() && regex.charAt(pos) >= '0' && regex.charAt(pos) <= '7'
+                            && octal * 8 + (regex.charAt(pos) - '0') <= 0377) {
+                        octal = octal * 8 + (regex.charAt(pos++) - '0');
+                        digits++;
+                    }
+                    if (digits == 0) throw unsupported("illegal octal escape");
+                    return octal;
+                case 'x':
+                    if (regex.startsWith("{", pos)) {
+                        int end = regex.indexOf('}', pos);
+                        if (end < 0) throw unsupported("illegal hex escape");
+                        int value = hex(pos + 1, end);
+                        pos = end + 1;
+                        return value;
+                    } else {
+                        pos += 2;
+                        return hex(pos - 2, pos);
+                    }
+                case 'u':
+                    pos += 4;
+                    return hex(pos - 4, pos);
+                default:
+                    if (Character.isLetterOrDigit(c)) throw unsupported("escape '\\" + new String(Character.toChars(c)) + "'");
+                    return c;
+            }
+        }
+
+        private int hex(int start, int end) {
+            if (start >= end || end > regex.length()) throw unsupported("illegal hex escape");
+            try {
+                int value = Integer.parseInt(regex.substring(start, end), 16);
+                if (value > Character.MAX_CODE_POINT) throw unsupported("illegal hex escape");
+                return value;
+            } catch (NumberFormatException e) {
+                throw unsupported("illegal hex escape");
+            }
+        }
+
+        private UnsupportedOperationException unsupported(String feature) {
+            return new UnsupportedOperationException(feature + " at position " + pos);
+        }
+    }
+
+    ///--- char class
+
+    private static final class CharClass {
+        static final CharClass DIGIT = of(false, Arrays.asList(new int[]{'0', '9'}));
+        static final CharClass WORD = of(false, Arrays.asList(new int[]{'0', '9'}, new int[]{'A', 'Z'},
+                new int[]{'_', '_'}, new int[]{'a', 'z'}));
+        static final CharClass SPACE = of(false, Arrays.asList(new int[]{'\t', '\r'}, new int[]{' ', ' '}));
+        // any char, except line terminators
+        static final CharClass DOT = of(true, Arrays.asList(new int[]{'\n', '\n'}, new int[]{'\r', '\r'},
+                new int[]{0x85, 0x85}, new int[]{0x2028, 0x2029}));
+
+        private final int[] bounds; // sorted, non-overlapping [lo, hi] pairs
+
+        private CharClass(int[] bounds) {
+            this.bounds = bounds;
+        }
+
+        static CharClass of(boolean negate, int lo, int hi) {
+            return of(negate, Collections.singletonList(new int[]{ lo, hi }));
+        }
+        static CharClass of(boolean negate, List<int[]> ranges) {
+            List<int[]> sorted = new ArrayList<>(ranges);
+            sorted.sort(Comparator.comparingInt(r -> r[0]));
+            List<int[]> merged = new ArrayList<>();
+            for (int[] range : sorted) {
+                int[] last = merged.isEmpty() ? null : merged.get(merged.size() - 1);
+                if (last != null && range[0] <= last[1] + 1) last[1] = Math.max(last[1], range[1]);
+                else merged.add(new int[]{ range[0], range[1] });
+            }
+
+            int[] bounds = new int[merged.size() * 2];
+            for (int i = 0; i < merged.size(); i++) {
+                bounds[i * 2] = merged.get(i)[0];
+                bounds[i * 2 + 1] = merged.get(i)[1];
+            }
+            CharClass cc = new CharClass(bounds);
+            return negate ? cc.negate() : cc;
+        }
+
+        CharClass negate() {
+            List<int[]> result = new ArrayList<>();
+            int next = 0;
+            for (int i = 0; i < bounds.length; i += 2) {
+                if (bounds[i] > next) result.add(new int[]{ next, bounds[i] - 1 });
+                next = bounds[i + 1] + 1;
+            }
+            if (next <= Character.MAX_CODE_POINT) result.add(new int[]{ next, Character.MAX_CODE_POINT });
+            return of(false, result);
+        }
+
+        List<int[]> ranges() {
+            List<int[]> result = new ArrayList<>();
+            for (int i = 0; i < bounds.length; i += 2) result.add(new int[]{ bounds[i], bounds[i + 1] });
+            return result;
+        }
+
+        boolean matches(int cp) {
+            int lo = 0, hi = bounds.length / 2 - 1;
+            while (lo <= hi) {
+                int mid = (lo + hi) >>> 1;
+                if (cp < bounds[mid * 2]) hi = mid - 1;
+                else if (cp > bounds[mid * 2 + 1]) lo = mid + 1;
+                else return true;
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.github.tminglei.bind;
+
+import java.util.*;
+
+import static com.github.tminglei.bind.Framework.*;
+
+/**
+ * index of a mapping tree, used to resolve a concrete path (e.g. `orders[3].lines[7].qty`) to its
+ * mapping node, and the options inherited from its ancestors, in O(depth)
+ *
+ * NOTE: a path can't be resolved through a `union` mapping, since its variant depends on the data;
+ *       a path through `when` mapping(s) resolves to a node guarded by their conditions
+ */
+public final class MappingIndex {
+    private final Mapping<?> root;
+    private final Map<Mapping<?>, Map<String, Mapping<?>>> groupFields = new IdentityHashMap<>();
+
+    private MappingIndex(Mapping<?> root) {
+        this.root = root;
+        indexRec(root);
+    }
+
+    public static MappingIndex of(Mapping<?> mapping) {
+        return new MappingIndex(mapping);
+    }
+
+    private void indexRec(Mapping<?> mapping) {
+        Mapping<?> theMapping = unwrap(mapping);
+        if (groupFields.containsKey(theMapping)) return;
+        if (theMapping instanceof GroupMapping) {
+            Map<String, Mapping<?>> fields = new HashMap<>();
+            for (Map.Entry<String, Mapping<?>> field : ((GroupMapping) theMapping).fields()) {
+                fields.put(field.getKey(), field.getValue());
+                indexRec(field.getValue());
+            }
+            groupFields.put(theMapping, fields);
+        } else {
+            for (Mapping<?> base : theMapping.meta().baseMappings) indexRec(base);
+        }
+    }
+
+    /**
+     * resolve the path to its mapping node
+     * @param path concrete path, e.g. `orders[3].lines[7].qty`
+     * @return (mapping node, options inherited from its parent)
+     * @throws IllegalArgumentException if no mapping for the path
+     */
+    public Map.Entry<Mapping<?>, Options> resolve(String path) {
+        Map.Entry<Mapping<?>, Options> current = FrameworkUtils.entry(root, Options.EMPTY);
+        // conditional ancestors, keyed by their names
+        List<Map.Entry<String, Mapping<?>>> guards = new ArrayList<>();
+        int pos = 0;
+        while (pos < path.length()) {
+            boolean isIndex = path.charAt(pos) == '[';
+            int start = isIndex || path.charAt(pos) == '.' ? pos + 1 : pos;
+            int end = isIndex ? path.indexOf(']', start) : segmentEnd(path, start);
+            if (end < 0 || end == start) throw new IllegalArgumentException("Illegal path: " + path);
+
+            if (isConditional(current.getKey())) guards.add(FrameworkUtils.entry(path.substring(0, pos), current.getKey()));
+            current = child(current.getKey(), current.getValue(), path.substring(start, end), isIndex);
+            if (current == null) throw new IllegalArgumentException("No mapping for '" + path.substring(0, end) + "'");
+            pos = isIndex ? end + 1 : end;
+        }
+        return guards.isEmpty() ? current : FrameworkUtils.entry(guarded(current.getKey(), guards), current.getValue());
+    }
+
+    private static <T> Mapping<T> guarded(Mapping<T> mapping, List<Map.Entry<String, Mapping<?>>> guards) {
+        return new ConditionalMapping<>((name, data) -> guards.stream()
+                .allMatch(guard -> conditionsHold(guard.getValue(), guard.getKey(), data)), mapping);
+    }
+
+    // (child mapping, options inherited from `mapping`), or null if not found
+    private Map.Entry<Mapping<?>, Options> child(Mapping<?> mapping, Options parentOptions, String segment, boolean isIndex) {
+        Options options = mapping.options().merge(parentOptions);
+        Mapping<?> theMapping = unwrap(mapping);
+        Class<?> targetType = theMapping.meta().targetType;
+        Mapping<?> child;
+        if (theMapping instanceof GroupMapping) {
+            child = isIndex ? null : groupFields.get(theMapping).get(segment);
+        } else if (targetType == List.class || targetType.isArray()) {
+            child = isIndex && isIndexNum(segment) ? theMapping.meta().baseMappings[0] : null;
+        } else if (targetType == Map.class) {
+            child = isIndex ? null : theMapping.meta().baseMappings[1];
+        } else if (targetType == Optional.class) {
+            // optional mapping validates its base w/ its own (merged) options
+            return child(theMapping.meta().baseMappings[0], options, segment, isIndex);
+        } else child = null;
+        return child == null ? null : FrameworkUtils.entry(child, options);
+    }
+
+    // fields of a group mapping in the tree, keyed by name
+    Map<String, Mapping<?>> fieldsOf(GroupMapping group) {
+        Map<String, Mapping<?>> fields = groupFields.get(group);
+        return fields != null ? fields : Collections.emptyMap();
+    }
+
+    // end of a name segment, which may be quoted (e.g. `"a.b"`)
+    static int segmentEnd(String path, int start) {
+        if (path.charAt(start) == '"') {
+            int end = path.indexOf('"', start + 1);
+            return end < 0 ? -1 : end + 1;
+        }
+        int end = start;
+        while (end < path.length() && path.charAt(end) != '.' && path.charAt(end) != '[') end++;
+        return end;
+    }
+
+    private static boolean isIndexNum(String segment) {
+        for (int i = 0; i < segment.length(); i++) {
+            if (!Character.isDigit(segment.charAt(i))) return false;
+        }
+        return true;
+    }
+}
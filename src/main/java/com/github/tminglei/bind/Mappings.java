@@ -8,7 +8,10 @@ import java.math.BigInteger;
 import java.time.*;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BiPredicate;
 import java.util.function.Function;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
 import com.github.tminglei.bind.spi.*;
@@ -180,7 +183,7 @@ public class Mappings implements Const {
                         return LocalDate.parse(s, formatter);
                     }
                 }), new MappingMeta(MAPPING_DATE, LocalDate.class)
-            ).constraint(anyPassed(
+            ).constraint(anyPassed(true,
                     parsing(s -> new Date(Long.parseLong(s)), "'%s' not a date long", false),
                     parsing(formatter::parse, "error.pattern", true, pattern)
                 )).constraint(constraints);
@@ -207,7 +210,7 @@ public class Mappings implements Const {
                         return LocalDateTime.parse(s, formatter);
                     }
                 }), new MappingMeta(MAPPING_DATE_TIME, LocalDateTime.class)
-            ).constraint(anyPassed(
+            ).constraint(anyPassed(true,
                     parsing(s -> new Date(Long.parseLong(s)), "'%s' not a date long", false),
                     parsing(formatter::parse, "error.pattern", true, pattern)
                 )).constraint(constraints);
@@ -234,7 +237,7 @@ public class Mappings implements Const {
                         return LocalTime.parse(s, formatter);
                     }
                 }), new MappingMeta(MAPPING_TIME, LocalTime.class)
-            ).constraint(anyPassed(
+            ).constraint(anyPassed(true,
                     parsing(s -> new Date(Long.parseLong(s)), "'%s' not a date long", false),
                     parsing(formatter::parse, "error.pattern", true, pattern)
                 )).constraint(constraints);
@@ -280,6 +283,8 @@ public class Mappings implements Const {
      */
     public static <T> Mapping<Optional<T>> optional(Mapping<T> base, Constraint... constraints) {
         String mname = "optional " + base.meta().name;
+        // base mapping merged w/ the optional's constraints/label, keyed by the optional's (reused) options
+        AtomicReference<Map.Entry<Options, Mapping<T>>> merged = new AtomicReference<>();
         return new FieldMapping<Optional<T>>(
                 base.options()._inputMode(),
                 ((name, data) -> {
@@ -295,17 +300,47 @@ public class Mappings implements Const {
                     if (isEmptyInput(name, data, base.options()._inputMode())) {
                         return Collections.emptyList();
                     } else { // merge the optional's constraints/label to base mapping then do validating
-                        return base.options(o -> o.append_constraints(options._constraints()))
-                                .options(o -> o._label(o._label().orElse(options._label().orElse(null))))
-                                .validate(name, data, messages, options);
+                        Map.Entry<Options, Mapping<T>> last = merged.get();
+                        Mapping<T> theBase;
+                        if (last != null && last.getKey() == options) theBase = last.getValue();
+                        else {
+                            theBase = base.options(o -> o.append_constraints(options._constraints()))
+                                    .options(o -> o._label(o._label().orElse(options._label().orElse(null))));
+                            merged.set(entry(options, theBase));
+                        }
+                        return theBase.validate(name, data, messages, options);
                     }
                 }), new MappingMeta(mname, Optional.class, base)
             ).options(o -> o._ignoreConstraints(true))
                 .constraint(constraints);
         }
 
+    /**
+     * (mapping) validate/convert the base mapping only if the condition is true, otherwise skip it and
+     * convert to null
+     * NOTE: the condition is checked on the raw data; options/constraints of the 'when' mapping are the
+     *       base mapping's, so they're only checked if the condition is true; `FormBinder.validateAt` and
+     *       `bindPatch` see through it (the latter checks the condition on the merged data)
+     * @param condition condition on (full name, data)
+     * @param base base mapping
+     * @param <T> base type
+     * @return new created mapping
+     */
+    public static <T> Mapping<T> when(BiPredicate<String, Map<String, String>> condition, Mapping<T> base) {
+        return new ConditionalMapping<>(condition, base);
+    }
+    // helper method: check the condition on a sibling field's raw value, e.g. `when("delivery", "true"::equals, shipping)`
+    public static <T> Mapping<T> when(String siblingField, Predicate<String> condition, Mapping<T> base) {
+        return when((name, data) -> {
+            String parent = splitName(name)[0];
+            return condition.test(data.get(isEmptyStr(parent) ? siblingField : parent + "." + siblingField));
+        }, base);
+    }
+
     /**
      * (mapping) convert to list of values
+     * NOTE: if 'base' only depends on the element value, elements of same value are validated once,
+     *       and converted once if 'base' results in a built-in immutable type (e.g. `String`, `Integer`)
      * @param base base mapping
      * @param constraints constraints
      * @param <T> base type
@@ -313,22 +348,148 @@ public class Mappings implements Const {
      */
     public static <T> Mapping<List<T>> list(Mapping<T> base, Constraint... constraints) {
         String mname = "list of " + base.meta().name;
+        // elements of same value share the converted result, so only if it's immutable
+        boolean convertOnce = isValueScoped(base) && IMMUTABLE_TYPES.contains(base.meta().targetType);
         return new FieldMapping<>(
                 InputMode.MULTIPLE,
                 ((name, data) -> {
                     logger.debug("list - converting {}", name);
 
-                    return indexes(name, data).stream()
-                            .map(i -> base.convert(name + "[" + i + "]", data))
-                            .collect(Collectors.toList());
+                    if (!convertOnce) {
+                        return indexes(name, data).stream()
+                                .map(i -> base.convert(name + "[" + i + "]", data))
+                                .collect(Collectors.toList());
+                    } else { // convert each distinct value once
+                        Map<String, T> converted = new HashMap<>();
+                        return indexes(name, data).stream()
+                                .map(i -> {
+                                    String elemName = name + "[" + i + "]";
+                                    String value = data.get(elemName);
+                                    return isEmptyStr(value) ? base.convert(elemName, data)
+                                            : converted.computeIfAbsent(value, v -> base.convert(elemName, data));
+                                })
+                                .collect(Collectors.toList());
+                    }
                 }),
-                ((name, data, messages, options) -> {
-                    logger.debug("list - validating {}", name);
+                validateElements("list", base),
+                new MappingMeta(mname, List.class, base)
+            ).constraint(constraints);
+        }
+
+    /**
+     * (mapping) convert to array of primitive int values
+     * NOTE: 'base' is used to validate elements; if it's a plain `intv()` (w/o pre-processors),
+     *       elements will be parsed directly into the array, w/o boxing
+     * NOTE: an empty element is converted to `0` (as `intv()` does), and so is a `null` converted by a
+     *       custom 'base', since a primitive array can't hold nulls; add `required()` to 'base' to reject it
+     * @param constraints constraints
+     * @return new created mapping
+     */
+    public static Mapping<int[]> intArray(Constraint... constraints) {
+        return intArray(intv(), constraints);
+    }
+    public static Mapping<int[]> intArray(Mapping<Integer> base, Constraint... constraints) {
+        String mname = "array of " + base.meta().name;
+        boolean parseDirectly = isPlainMapping(base, MAPPING_INT);
+        return new FieldMapping<>(
+                InputMode.MULTIPLE,
+                ((name, data) -> {
+                    logger.debug("int array - converting {}", name);
+
+                    List<Integer> indexes = indexes(name, data);
+                    int[] values = new int[indexes.size()];
+                    for (int i = 0; i < values.length; i++) {
+                        String elemName = name + "[" + indexes.get(i) + "]";
+                        if (parseDirectly) {
+                            String s = data.get(elemName);
+                            values[i] = isEmptyStr(s) ? 0 : Integer.parseInt(s);
+                        } else {
+                            Integer v = base.convert(elemName, data);
+                            values[i] = v == null ? 0 : v;
+                        }
+                    }
+                    return values;
+                }),
+                validateElements("int array", base),
+                new MappingMeta(mname, int[].class, base)
+            ).constraint(constraints);
+        }
+
+    /**
+     * (mapping) convert to array of primitive long values
+     * NOTE: 'base' is used to validate elements; if it's a plain `longv()` (w/o pre-processors),
+     *       elements will be parsed directly into the array, w/o boxing
+     * NOTE: an empty element is converted to `0` (as `longv()` does), and so is a `null` converted by a
+     *       custom 'base', since a primitive array can't hold nulls; add `required()` to 'base' to reject it
+     * @param constraints constraints
+     * @return new created mapping
+     */
+    public static Mapping<long[]> longArray(Constraint... constraints) {
+        return longArray(longv(), constraints);
+    }
+    public static Mapping<long[]> longArray(Mapping<Long> base, Constraint... constraints) {
+        String mname = "array of " + base.meta().name;
+        boolean parseDirectly = isPlainMapping(base, MAPPING_LONG);
+        return new FieldMapping<>(
+                InputMode.MULTIPLE,
+                ((name, data) -> {
+                    logger.debug("long array - converting {}", name);
+
+                    List<Integer> indexes = indexes(name, data);
+                    long[] values = new long[indexes.size()];
+                    for (int i = 0; i < values.length; i++) {
+                        String elemName = name + "[" + indexes.get(i) + "]";
+                        if (parseDirectly) {
+                            String s = data.get(elemName);
+                            values[i] = isEmptyStr(s) ? 0l : Long.parseLong(s);
+                        } else {
+                            Long v = base.convert(elemName, data);
+                            values[i] = v == null ? 0l : v;
+                        }
+                    }
+                    return values;
+                }),
+                validateElements("long array", base),
+                new MappingMeta(mname, long[].class, base)
+            ).constraint(constraints);
+        }
 
-                    return indexes(name, data).stream()
-                            .flatMap(i -> base.validate(name + "[" + i + "]", data, messages, options).stream())
-                            .collect(Collectors.toList());
-                }), new MappingMeta(mname, List.class, base)
+    /**
+     * (mapping) convert to array of primitive double values
+     * NOTE: 'base' is used to validate elements; if it's a plain `doublev()` (w/o pre-processors),
+     *       elements will be parsed directly into the array, w/o boxing
+     * NOTE: an empty element is converted to `0` (as `doublev()` does), and so is a `null` converted by a
+     *       custom 'base', since a primitive array can't hold nulls; add `required()` to 'base' to reject it
+     * @param constraints constraints
+     * @return new created mapping
+     */
+    public static Mapping<double[]> doubleArray(Constraint... constraints) {
+        return doubleArray(doublev(), constraints);
+    }
+    public static Mapping<double[]> doubleArray(Mapping<Double> base, Constraint... constraints) {
+        String mname = "array of " + base.meta().name;
+        boolean parseDirectly = isPlainMapping(base, MAPPING_DOUBLE);
+        return new FieldMapping<>(
+                InputMode.MULTIPLE,
+                ((name, data) -> {
+                    logger.debug("double array - converting {}", name);
+
+                    List<Integer> indexes = indexes(name, data);
+                    double[] values = new double[indexes.size()];
+                    for (int i = 0; i < values.length; i++) {
+                        String elemName = name + "[" + indexes.get(i) + "]";
+                        if (parseDirectly) {
+                            String s = data.get(elemName);
+                            values[i] = isEmptyStr(s) ? 0.0d : Double.parseDouble(s);
+                        } else {
+                            Double v = base.convert(elemName, data);
+                            values[i] = v == null ? 0.0d : v;
+                        }
+                    }
+                    return values;
+                }),
+                validateElements("double array", base),
+                new MappingMeta(mname, double[].class, base)
             ).constraint(constraints);
         }
 
@@ -380,4 +541,112 @@ public class Mappings implements Const {
             ).constraint(constraints);
         }
 
+    /**
+     * (mapping) convert to one of the variants, which is picked by the value of the discriminator field
+     * NOTE: the discriminator is read once, and only the picked variant mapping will be used to validate/convert;
+     *       its label is taken from the discriminator field of the first group variant that declares it
+     * @param discriminator discriminator field name (short name)
+     * @param variants variant mappings, keyed by discriminator values, in the order of error messages
+     * @param constraints constraints
+     * @param <T> base type
+     * @return new created mapping
+     */
+    public static <T> Mapping<T> union(String discriminator, Map<String, ? extends Mapping<? extends T>> variants,
+                                       Constraint... constraints) {
+        String mname = "union by " + discriminator;
+        Map<String, Mapping<? extends T>> table = Collections.unmodifiableMap(new LinkedHashMap<>(variants));
+        Options discriminatorOptions = table.values().stream()
+                .map(Framework::unwrap)
+                .filter(m -> m instanceof GroupMapping)
+                .flatMap(m -> ((GroupMapping) m).fields().stream())
+                .filter(f -> f.getKey().equals(discriminator))
+                .map(f -> f.getValue().options())
+                .findFirst().orElse(Options.EMPTY);
+        Mapping<?>[] bases = table.values().toArray(new Mapping<?>[0]);
+        return new FieldMapping<T>(
+                InputMode.MULTIPLE,
+                ((name, data) -> {
+                    logger.debug("union - converting {}", name);
+
+                    String key = isEmptyStr(name) ? discriminator : name + "." + discriminator;
+                    Mapping<? extends T> variant = table.get(data.get(key));
+                    return variant == null || isEmptyInput(name, data, InputMode.MULTIPLE) ? null
+                            : variant.convert(name, data);
+                }),
+                ((name, data, messages, options) -> {
+                    logger.debug("union - validating {}", name);
+
+                    if (isEmptyInput(name, data, InputMode.MULTIPLE)) return Collections.emptyList();
+                    else {
+                        String key = isEmptyStr(name) ? discriminator : name + "." + discriminator;
+                        String value = data.get(key);
+                        Mapping<? extends T> variant = table.get(value);
+                        if (variant != null) return variant.validate(name, data, messages, options);
+                        else if (isEmptyStr(value)) {
+                            String label = getLabel(key, messages, discriminatorOptions);
+                            return Arrays.asList(entry(key, messages.format("error.required", label)));
+                        } else {
+                            return Arrays.asList(entry(key, messages.format("error.oneof", value, table.keySet())));
+                        }
+                    }
+                }), new MappingMeta(mname, Object.class, bases)
+            ).constraint(constraints);
+        }
+
+    ///////////////////////////////////////  internal helpers  //////////////////////////////
+
+    // validate every indexed element of a list/array with the base mapping
+    // NOTE: if `base` is value scoped, elements of same (non empty) value will be validated only once,
+    //       and the errors are shared if base has a fixed label, or the value passed
+    private static <T> Constraint validateElements(String kind, Mapping<T> base) {
+        boolean valueScoped = isValueScoped(base);
+        boolean fixedLabel = base.options()._label().isPresent();
+        return (name, data, messages, options) -> {
+            logger.debug("{} - validating {}", kind, name);
+
+            List<Integer> indexes = indexes(name, data);
+            if (!valueScoped || indexes.size() < 2 || base.options().merge(options).skipUntouched().orElse(false)) {
+                return indexes.stream()
+                        .flatMap(i -> base.validate(name + "[" + i + "]", data, messages, options).stream())
+                        .collect(Collectors.toList());
+            } else {
+                Map<String, Map.Entry<String, List<Map.Entry<String, String>>>> validated = new HashMap<>();
+                List<Map.Entry<String, String>> errors = new ArrayList<>();
+                for (int i : indexes) {
+                    String elemName = name + "[" + i + "]";
+                    String value = data.get(elemName);
+                    Map.Entry<String, List<Map.Entry<String, String>>> first = isEmptyStr(value) ? null : validated.get(value);
+                    if (first == null) {
+                        List<Map.Entry<String, String>> elemErrors = base.validate(elemName, data, messages, options);
+                        if (!isEmptyStr(value)) validated.put(value, entry(elemName, elemErrors));
+                        errors.addAll(elemErrors);
+                    } else if (first.getValue().isEmpty()) {
+                        // passed, nothing to do
+                    } else if (fixedLabel && first.getValue().stream().allMatch(e -> e.getKey().equals(first.getKey()))) {
+                        for (Map.Entry<String, String> error : first.getValue()) {
+                            errors.add(entry(elemName, error.getValue()));
+                        }
+                    } else errors.addAll(base.validate(elemName, data, messages, options));
+                }
+                return errors;
+            }
+        };
+    }
+
+    // whether the mapping's results only depend on the (SINGLE input) value, see `FieldMapping.isValueScoped`
+    private static boolean isValueScoped(Mapping<?> mapping) {
+        return mapping instanceof FieldMapping && ((FieldMapping<?>) mapping).isValueScoped();
+    }
+
+    // result types of built-in field mappings, which are immutable
+    private static final Set<Class<?>> IMMUTABLE_TYPES = new HashSet<>(Arrays.asList(
+            String.class, Boolean.class, Integer.class, Double.class, Float.class, Long.class,
+            BigDecimal.class, BigInteger.class, UUID.class, LocalDate.class, LocalDateTime.class, LocalTime.class));
+
+    // whether it's a pre-defined field mapping (e.g. `intv()`), w/o pre-processors attached
+    private static boolean isPlainMapping(Mapping<?> mapping, String mname) {
+        return mapping instanceof FieldMapping && mname.equals(mapping.meta().name)
+                && mapping.options()._processors().isEmpty();
+    }
+
 }
@@ -3,4 +3,14 @@ package com.github.tminglei.bind;
 @FunctionalInterface
 public interface Messages {
     String get(String key);
+
+    /**
+     * fetch the message template specified by key, and format it with args
+     * @param key message key
+     * @param args format arguments
+     * @return formatted message
+     */
+    default String format(String key, Object... args) {
+        return String.format(get(key), args);
+    }
 }
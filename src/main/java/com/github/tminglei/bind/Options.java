@@ -1,7 +1,6 @@
 package com.github.tminglei.bind;
 
 import java.util.*;
-import java.util.stream.Collectors;
 
 import com.github.tminglei.bind.spi.*;
 
@@ -16,13 +15,16 @@ public class Options {
     private Boolean eagerCheck;
     private Boolean skipUntouched;
     private TouchedChecker touchedChecker;
+    private Boolean adaptiveOrder;
     // internal state, only applied to current mapping
     private InputMode inputMode;
     private String label = null;
     private boolean ignoreConstraints = false;
     private List<Constraint> constraints = Collections.emptyList();
+    private List<Constraint> checks = Collections.emptyList();  // constraints, w/ built-in string ones fused
     private List<ExtraConstraint<?>> extraConstraints = Collections.emptyList();
     private List<PreProcessor> processors = Collections.emptyList();
+    private List<PreProcessor> pipeline = Collections.emptyList();  // processors, w/ value-local ones fused
     // used to associate/hold application specific object
     private Object attachment;
 
@@ -33,12 +35,36 @@ public class Options {
         this.touchedChecker = touchedChecker;
     }
 
+    // result of last merging, keyed by the identity of the merged (parent) options
+    private volatile Map.Entry<Options, Options> lastMerged;
+
+    /**
+     * inherit unset `eagerCheck`/`skipUntouched`/`touchedChecker`/`adaptiveOrder` from other (parent) options
+     *
+     * NOTE: the result will be reused for the same other options, which, in a mapping
+     *       tree, is the (also reused) merged options of the parent mapping
+     * @param other other options
+     * @return merged options
+     */
     public Options merge(Options other) {
-        Options clone = this.clone();
-        clone.eagerCheck = eagerCheck != null ? eagerCheck : other.eagerCheck;
-        clone.skipUntouched = skipUntouched != null ? skipUntouched : other.skipUntouched;
-        clone.touchedChecker = touchedChecker != null ? touchedChecker : other.touchedChecker;
-        return clone;
+        if (other == this || ((eagerCheck != null || other.eagerCheck == null)
+                && (skipUntouched != null || other.skipUntouched == null)
+                && (touchedChecker != null || other.touchedChecker == null)
+                && (adaptiveOrder != null || other.adaptiveOrder == null))) {
+            return this;    // nothing to inherit
+        }
+
+        Map.Entry<Options, Options> merged = this.lastMerged;
+        if (merged != null && merged.getKey() == other) return merged.getValue();
+        else {
+            Options clone = this.clone();
+            clone.eagerCheck = eagerCheck != null ? eagerCheck : other.eagerCheck;
+            clone.skipUntouched = skipUntouched != null ? skipUntouched : other.skipUntouched;
+            clone.touchedChecker = touchedChecker != null ? touchedChecker : other.touchedChecker;
+            clone.adaptiveOrder = adaptiveOrder != null ? adaptiveOrder : other.adaptiveOrder;
+            this.lastMerged = entry(other, clone);
+            return clone;
+        }
     }
 
     ///
@@ -82,6 +108,20 @@ public class Options {
         return clone;
     }
 
+    /**
+     * whether to re-order constraints of a mapping by their observed cost and rejection rate,
+     * only applied to non-eager check
+     * @return the value optional
+     */
+    public Optional<Boolean> adaptiveOrder() {
+        return Optional.ofNullable(this.adaptiveOrder);
+    }
+    public Options adaptiveOrder(Boolean adaptiveOrder) {
+        Options clone = this.clone();
+        clone.adaptiveOrder = adaptiveOrder;
+        return clone;
+    }
+
     //-- internal options
     InputMode _inputMode() {
         return this.inputMode;
@@ -116,17 +156,19 @@ public class Options {
     Options _constraints(List<Constraint> constraints) {
         Options clone = this.clone();
         clone.constraints = unmodifiableList(constraints);
+        clone.checks = unmodifiableList(Constraints.fuse(clone.constraints));
         return clone;
     }
     Options append_constraints(List<Constraint> constraints) {
-        Options clone = this.clone();
-        clone.constraints = unmodifiableList(mergeList(clone.constraints, constraints));
-        return clone;
+        return _constraints(mergeList(this.constraints, constraints));
     }
     Options prepend_constraints(List<Constraint> constraints) {
-        Options clone = this.clone();
-        clone.constraints = unmodifiableList(mergeList(constraints, clone.constraints));
-        return clone;
+        return _constraints(mergeList(constraints, this.constraints));
+    }
+
+    // constraints to be checked, which has adjacent built-in string constraints fused
+    List<Constraint> _checks() {
+        return this.checks;
     }
 
     List<PreProcessor> _processors() {
@@ -135,21 +177,23 @@ public class Options {
     Options _processors(List<PreProcessor> processors) {
         Options clone = this.clone();
         clone.processors = unmodifiableList(processors);
+        clone.pipeline = unmodifiableList(Processors.fuse(clone.processors));
         return clone;
     }
     Options append_processors(List<PreProcessor> processors) {
-        Options clone = this.clone();
-        clone.processors = unmodifiableList(mergeList(clone.processors, processors));
-        return clone;
+        return _processors(mergeList(this.processors, processors));
     }
     Options prepend_processors(List<PreProcessor> processors) {
-        Options clone = this.clone();
-        clone.processors = unmodifiableList(mergeList(processors, clone.processors));
-        return clone;
+        return _processors(mergeList(processors, this.processors));
+    }
+
+    // processors to be executed, which has adjacent value-local processors fused
+    List<PreProcessor> _pipeline() {
+        return this.pipeline;
     }
 
     <T> List<ExtraConstraint<T>> _extraConstraints() {
-        return this.extraConstraints.stream().map(c -> (ExtraConstraint<T>) c).collect(Collectors.toList());
+        return (List) this.extraConstraints;
     }
     Options _extraConstraints(List<ExtraConstraint<?>> extraConstraints) {
         Options clone = this.clone();
@@ -176,12 +220,15 @@ public class Options {
 
     protected Options clone() {
         Options clone = new Options(this.eagerCheck, this.skipUntouched, this.touchedChecker);
+        clone.adaptiveOrder = this.adaptiveOrder;
         clone.inputMode = this.inputMode;
         clone.label = this.label;
         clone.ignoreConstraints = this.ignoreConstraints;
         clone.constraints = this.constraints;
+        clone.checks = this.checks;
         clone.extraConstraints = this.extraConstraints;
         clone.processors = this.processors;
+        clone.pipeline = this.pipeline;
         clone.attachment = this.attachment;
         return clone;
     }
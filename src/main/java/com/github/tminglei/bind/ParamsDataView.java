@@ -0,0 +1,155 @@
+package com.github.tminglei.bind;
+
+import java.util.*;
+
+/**
+ * read-only data view over a params map (name -* value array), which has same keys/values as
+ * `Simple.data(params, others)`, but without copying: indexed keys like `tags[3]` are resolved
+ * from the related value array on demand; the entries are synthesized lazily, on each iteration
+ *
+ * NOTE: the params map is expected to be unchanged while the view is in use
+ */
+final class ParamsDataView extends AbstractMap<String, String> {
+    private static final Object ABSENT = new Object();
+
+    private final Map<String, String[]> params;
+    private final Map<String, String> others;
+
+    ParamsDataView(Map<String, String[]> params, Map<String, String> others) {
+        this.params = params;
+        this.others = others;
+    }
+
+    @Override
+    public String get(Object key) {
+        Object value = lookup(key);
+        return value == ABSENT ? null : (String) value;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return lookup(key) != ABSENT;
+    }
+
+    @Override
+    public int size() {
+        // computed from the value arrays, w/o synthesizing the keys
+        int size = others.size();
+        for (Entry<String, String[]> entry : params.entrySet()) {
+            String[] values = entry.getValue();
+            if (values == null || values.length == 0) continue;
+            size += values.length == 1 && !entry.getKey().endsWith("[]") ? 1 : values.length;
+        }
+        for (String key : others.keySet()) {
+            if (lookupParams(key) != ABSENT) size--;
+        }
+        return size;
+    }
+
+    @Override
+    public Set<Entry<String, String>> entrySet() {
+        return new AbstractSet<Entry<String, String>>() {
+            @Override
+            public Iterator<Entry<String, String>> iterator() {
+                return new EntryIterator();
+            }
+            @Override
+            public int size() {
+                return ParamsDataView.this.size();
+            }
+        };
+    }
+
+    /////////////////////////////////////////////////////////////////////////////////////
+
+    private Object lookup(Object key) {
+        if (!(key instanceof String)) return ABSENT;
+        String name = (String) key;
+        return others.containsKey(name) ? others.get(name) : lookupParams(name);
+    }
+
+    // value of the key synthesized from the params, w/o considering `others`
+    private Object lookupParams(String name) {
+        String[] values = params.get(name);
+        if (values != null && values.length == 1 && !name.endsWith("[]")) return values[0];
+
+        // matches: 'name[index]'
+        int start = name.lastIndexOf('[');
+        if (start < 0 || !name.endsWith("]")) return ABSENT;
+        int index = parseIndex(name, start + 1, name.length() - 1);
+        if (index < 0) return ABSENT;
+
+        String base = name.substring(0, start);
+        values = params.get(base + "[]");
+        if (values == null || index >= values.length) {
+            values = params.get(base);
+            if (values == null || values.length < 2) return ABSENT;
+        }
+        return index < values.length ? values[index] : ABSENT;
+    }
+
+    // same format as generated by `base + "[" + i + "]"`, or -1 if not matched
+    private static int parseIndex(String str, int start, int end) {
+        if (start >= end || end - start > 9) return -1;
+        if (str.charAt(start) == '0' && end - start > 1) return -1;
+        int index = 0;
+        for (int i = start; i < end; i++) {
+            char c = str.charAt(i);
+            if (c < '0' || c > '9') return -1;
+            index = index * 10 + (c - '0');
+        }
+        return index;
+    }
+
+    private final class EntryIterator implements Iterator<Entry<String, String>> {
+        private final Iterator<Entry<String, String[]>> paramsIt = params.entrySet().iterator();
+        private final Iterator<Entry<String, String>> othersIt = others.entrySet().iterator();
+        private String base;
+        private String[] values;
+        private int index;
+        private Entry<String, String> next;
+
+        EntryIterator() {
+            advance();
+        }
+
+        private void advance() {
+            next = null;
+            while (next == null) {
+                if (values != null && index < values.length) {
+                    String key = base + "[" + index + "]";
+                    if (!others.containsKey(key)) next = new SimpleImmutableEntry<>(key, values[index]);
+                    index++;
+                } else if (paramsIt.hasNext()) {
+                    Entry<String, String[]> entry = paramsIt.next();
+                    String name = entry.getKey();
+                    values = null;
+                    if (entry.getValue() == null || entry.getValue().length == 0)
+                        continue;
+                    else if (entry.getValue().length == 1 && !name.endsWith("[]")) {
+                        if (!others.containsKey(name)) next = new SimpleImmutableEntry<>(name, entry.getValue()[0]);
+                    } else {
+                        base = name.endsWith("[]") ? name.substring(0, name.length() - 2) : name;
+                        values = entry.getValue();
+                        index = 0;
+                    }
+                } else if (othersIt.hasNext()) {
+                    next = othersIt.next();
+                } else break;
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        @Override
+        public Entry<String, String> next() {
+            if (next == null) throw new NoSuchElementException();
+            Entry<String, String> result = next;
+            advance();
+            return result;
+        }
+    }
+}
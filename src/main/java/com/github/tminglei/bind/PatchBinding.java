@@ -0,0 +1,305 @@
+package com.github.tminglei.bind;
+
+import java.util.*;
+
+import com.github.tminglei.bind.spi.MappingMeta;
+
+import static com.github.tminglei.bind.Framework.*;
+import static com.github.tminglei.bind.FrameworkUtils.*;
+
+/**
+ * PATCH-style partial binding, which only visits the fields supplied in the data, and merges the
+ * converted values into an existing bind object or bean
+ *
+ * NOTE: fields absent from the data are kept unchanged (so their constraints won't be checked);
+ *       group constraints of a supplied group are checked on the supplied data, while its extra
+ *       constraints are checked on the merged value; nested groups (even wrapped by `map(..)`) are
+ *       merged field by field, and supplied elements of a list/map field are merged into the existing
+ *       one by index/key (e.g. `orders[3].qty` only changes the `qty` of the 4th order), w/ the list's
+ *       constraints checked on the supplied elements, and its extra constraints on the merged value;
+ *       conditions of `when` mappings are checked on the merged data, and a supplied field skipped by
+ *       its condition is kept unchanged
+ */
+final class PatchBinding {
+    private final MappingIndex index;
+    private final Map<String, String> data;
+    private final Messages messages;
+    private final Object target;
+    // supplied data, w/ existing values (in `String.valueOf` form) for absent keys, used to check conditions
+    private final Map<String, String> mergedData;
+    // supplied field names (and element indexes, like `[3]`), keyed by their parent's full name
+    private final Map<String, Set<String>> supplied = new HashMap<>();
+    // merged values of the groups and lists/maps, keyed by their full names
+    private final Map<String, Object> mergedValues = new HashMap<>();
+
+    PatchBinding(MappingIndex index, Map<String, String> data, Messages messages, Object target) {
+        this.index = index;
+        this.data = data;
+        this.messages = messages;
+        this.target = target;
+        this.mergedData = new AbstractMap<String, String>() {
+            @Override
+            public String get(Object key) {
+                return data.containsKey(key) || !(key instanceof String) ? data.get(key) : existingValue((String) key);
+            }
+            @Override
+            public boolean containsKey(Object key) {
+                return data.containsKey(key) || key instanceof String && existingValue((String) key) != null;
+            }
+            @Override
+            public Set<Entry<String, String>> entrySet() {
+                return data.entrySet();     // the supplied only, since existing values can't be listed
+            }
+        };
+
+        for (String key : data.keySet()) {
+            int pos = 0;
+            while (pos < key.length()) {
+                boolean isIndex = key.charAt(pos) == '[';
+                int start = isIndex || key.charAt(pos) == '.' ? pos + 1 : pos;
+                int end = isIndex ? key.indexOf(']', start) : MappingIndex.segmentEnd(key, start);
+                if (end < 0 || end == start) break;
+
+                supplied.computeIfAbsent(key.substring(0, pos), k -> new LinkedHashSet<>())
+                        .add(isIndex ? key.substring(pos, end + 1) : key.substring(start, end));
+                pos = isIndex ? end + 1 : end;
+            }
+        }
+    }
+
+    List<Map.Entry<String, String>> validate(GroupMapping group, String name, Options parentOptions, Object existing) {
+        // can't track the fields, if data was pre-processed
+        if (!group.options().merge(parentOptions)._processors().isEmpty())
+            return group.validate(name, data, messages, parentOptions);
+
+        Map<String, Mapping<?>> fields = index.fieldsOf(group);
+        List<Map.Entry<String, Mapping<?>>> suppliedFields = new ArrayList<>();
+        for (String field : suppliedOf(name)) {
+            if (fields.containsKey(field)) suppliedFields.add(entry(field, fields.get(field)));
+        }
+        return group.validate(name, data, messages, parentOptions, suppliedFields,
+                (field, fullName, mapping, data1, messages1, options1) ->
+                    validateNode(mapping, fullName, options1, valueOf(existing, field)),
+                (data1, only) -> merged(group, name, existing));
+    }
+
+    // validate the (maybe wrapped) group, then extra constraints of its wrappers on the merged value
+    List<Map.Entry<String, String>> validateGroup(Mapping<?> mapping, String name, Options parentOptions, Object existing) {
+        GroupMapping group = (GroupMapping) unwrap(mapping);
+        List<Map.Entry<String, String>> errors = validate(group, name, parentOptions, existing);
+        return errors.isEmpty() && mapping != group
+                ? extraValidateTransforms(name, mapping, merged(group, name, existing), messages, parentOptions)
+                : errors;
+    }
+
+    // validate a supplied field/element, merged w/ its existing value if it's a group or list/map
+    private List<Map.Entry<String, String>> validateNode(Mapping<?> mapping, String name, Options parentOptions, Object existing) {
+        Mapping<?> theMapping = unwrap(mapping);
+        if (!conditionsHold(mapping, name, mergedData)) return Collections.emptyList();
+        else if (theMapping instanceof GroupMapping) return validateGroup(mapping, name, parentOptions, existing);
+        else if (isContainer(theMapping)) return validateContainer(mapping, name, parentOptions, existing);
+        else return withoutConditions(mapping).validate(name, data, messages, parentOptions);
+    }
+
+    // validate the supplied elements of the (maybe wrapped) list/map, then its extra constraints on the merged value
+    private List<Map.Entry<String, String>> validateContainer(Mapping<?> mapping, String name, Options parentOptions, Object existing) {
+        FieldMapping<?> container = (FieldMapping<?>) unwrap(mapping);
+        Mapping<?>[] bases = container.meta().baseMappings;
+        Mapping<?> elemBase = bases[bases.length - 1];
+        Object theExisting = unwrap(mapping) == mapping ? existing : null;     // can't see through the transforms
+
+        FieldMapping<?> withoutExtras = (FieldMapping<?>) container.options(o -> o._extraConstraints(Collections.emptyList()));
+        List<Map.Entry<String, String>> errors = withoutExtras.validate(name, data, messages, parentOptions,
+            (name1, data1, messages1, options1) -> {
+                List<Map.Entry<String, String>> elemErrors = new ArrayList<>();
+                for (String elem : elementsOf(container, name1)) {
+                    if (container.meta().targetType == Map.class) {
+                        String unquoted = elem.replaceAll("^\"?([^\"]+)\"?$", "$1");
+                        elemErrors.addAll(bases[0].validate(elem, newmap(entry(elem, unquoted)), messages1, options1));
+                    }
+                    elemErrors.addAll(validateNode(elemBase, elementName(container, name1, elem), options1,
+                            elementOf(container, theExisting, elem)));
+                }
+                return elemErrors;
+            });
+        if (!errors.isEmpty()) return errors;
+
+        Options theOptions = container.options().merge(parentOptions);
+        Object merged = mergedContainer(container, name, theExisting);
+        errors = extraValidateRec(name, merged, messages, theOptions, theOptions._extraConstraints());
+        return errors.isEmpty() && mapping != container
+                ? extraValidateTransforms(name, mapping, merged, messages, parentOptions)
+                : errors;
+    }
+
+    // existing value (bind object or bean) merged w/ the supplied fields, as a new bind object
+    // NOTE: merged once per group, and reused by extra constraints and the result
+    BindObject merged(GroupMapping group, String name, Object existing) {
+        BindObject merged = (BindObject) mergedValues.get(name);
+        if (merged == null) {
+            merged = doMerge(group, name, existing);
+            mergedValues.put(name, merged);
+        }
+        return merged;
+    }
+
+    private BindObject doMerge(GroupMapping group, String name, Object existing) {
+        if (!group.options()._processors().isEmpty()) return group.convert(name, data);
+
+        Map<String, Mapping<?>> fields = index.fieldsOf(group);
+        Map<String, Object> values = new HashMap<>();
+        if (existing instanceof BindObject) {
+            for (Map.Entry<String, Object> e : (BindObject) existing) values.put(e.getKey(), e.getValue());
+        } else if (existing != null) {
+            for (String field : fields.keySet()) {
+                if (hasProperty(existing, field)) values.put(field, PropertyUtils.readProperty(existing, field));
+            }
+        }
+
+        for (String field : suppliedOf(name)) {
+            Mapping<?> mapping = fields.get(field);
+            String fullName = isEmptyStr(name) ? field : name + "." + field;
+            if (mapping == null || !conditionsHold(mapping, fullName, mergedData)) continue;
+            values.put(field, mergedNode(mapping, fullName, valueOf(existing, field)));
+        }
+        return new BindObject(values);
+    }
+
+    // existing list/map w/ the supplied elements merged by index/key, as a new list/map
+    private Object mergedContainer(FieldMapping<?> container, String name, Object existing) {
+        Object merged = mergedValues.get(name);
+        if (merged == null) {
+            merged = doMergeContainer(container, name, existing);
+            mergedValues.put(name, merged);
+        }
+        return merged;
+    }
+
+    private Object doMergeContainer(FieldMapping<?> container, String name, Object existing) {
+        Mapping<?>[] bases = container.meta().baseMappings;
+        if (container.meta().targetType == Map.class) {
+            Map<Object, Object> values = existing instanceof Map ? new HashMap<>((Map<?, ?>) existing) : new HashMap<>();
+            for (String key : elementsOf(container, name)) {
+                String keyName = name + "." + key;
+                if (!conditionsHold(bases[1], keyName, mergedData)) continue;
+                Object theKey = elementKey(container, key);
+                values.put(theKey, mergedNode(bases[1], keyName, values.get(theKey)));
+            }
+            return values;
+        } else {
+            List<Object> values = existing instanceof List ? new ArrayList<>((List<?>) existing) : new ArrayList<>();
+            for (String elem : elementsOf(container, name)) {
+                int i = Integer.parseInt(elem.substring(1, elem.length() - 1));
+                if (!conditionsHold(bases[0], name + elem, mergedData)) continue;
+                while (values.size() <= i) values.add(null);
+                values.set(i, mergedNode(bases[0], name + elem, values.get(i)));
+            }
+            return values;
+        }
+    }
+
+    // converted value of a supplied field/element, merged w/ its existing value if it's a group or list/map
+    private Object mergedNode(Mapping<?> mapping, String name, Object existing) {
+        Mapping<?> theMapping = unwrap(mapping);
+        if (theMapping instanceof GroupMapping) {
+            return transform(mapping, merged((GroupMapping) theMapping, name, existing));
+        } else if (isContainer(theMapping)) {
+            return transform(mapping, mergedContainer((FieldMapping<?>) theMapping, name, theMapping == mapping ? existing : null));
+        } else return withoutConditions(mapping).convert(name, data);
+    }
+
+    // merge the supplied fields into the bean, in place
+    void mergeInto(Object bean, GroupMapping group, String name) {
+        Map<String, Mapping<?>> fields = index.fieldsOf(group);
+        for (String field : suppliedOf(name)) {
+            Mapping<?> mapping = fields.get(field);
+            String fullName = isEmptyStr(name) ? field : name + "." + field;
+            if (mapping == null || !hasProperty(bean, field) || !conditionsHold(mapping, fullName, mergedData)) continue;
+
+            Object current = PropertyUtils.readProperty(bean, field);
+            Mapping<?> theMapping = unwrap(mapping);
+            if (theMapping instanceof GroupMapping && current != null && !(current instanceof BindObject)
+                    && theMapping.options()._processors().isEmpty()) {
+                mergeInto(current, (GroupMapping) theMapping, fullName);
+            } else {
+                Object value = mergedNode(mapping, fullName, current);
+                Class<?> propType = PropertyUtils.getPropertyType(bean.getClass(), field);
+                PropertyUtils.writeProperty(bean, field, Transformers.transform(value, propType, Transformers.REGISTRY));
+            }
+        }
+    }
+
+    ///
+    // list/map (w/o pre-processors), whose supplied elements can be merged into the existing one
+    private static boolean isContainer(Mapping<?> mapping) {
+        MappingMeta meta = mapping.meta();
+        return mapping instanceof FieldMapping && mapping.options()._processors().isEmpty()
+                && (meta.targetType == List.class && meta.baseMappings.length == 1
+                    || meta.targetType == Map.class && meta.baseMappings.length == 2);
+    }
+
+    private Set<String> suppliedOf(String name) {
+        return supplied.getOrDefault(name, Collections.emptySet());
+    }
+
+    // supplied element indexes (like `[3]`) of the list, or keys of the map
+    private List<String> elementsOf(FieldMapping<?> container, String name) {
+        boolean isList = container.meta().targetType == List.class;
+        List<String> elements = new ArrayList<>();
+        for (String elem : suppliedOf(name)) {
+            boolean isIndex = elem.startsWith("[");
+            if (isList && isIndex && elem.length() > 2 && elem.chars().skip(1).limit(elem.length() - 2).allMatch(Character::isDigit)
+                    || !isList && !isIndex) elements.add(elem);
+        }
+        return elements;
+    }
+
+    private static String elementName(FieldMapping<?> container, String name, String elem) {
+        return container.meta().targetType == List.class ? name + elem : name + "." + elem;
+    }
+
+    // key of the map element, converted by the key mapping
+    private static Object elementKey(FieldMapping<?> container, String key) {
+        String unquoted = key.replaceAll("^\"?([^\"]+)\"?$", "$1");
+        return container.meta().baseMappings[0].convert(key, newmap(entry(key, unquoted)));
+    }
+
+    private static Object elementOf(FieldMapping<?> container, Object existing, String elem) {
+        if (container.meta().targetType == List.class) {
+            if (!(existing instanceof List)) return null;
+            int i = Integer.parseInt(elem.substring(1, elem.length() - 1));
+            return i < ((List<?>) existing).size() ? ((List<?>) existing).get(i) : null;
+        } else return existing instanceof Map ? ((Map<?, ?>) existing).get(elementKey(container, elem)) : null;
+    }
+
+    ///
+    // existing value at the key (e.g. `orders[3].qty`), in `String.valueOf` form, or null if absent
+    private String existingValue(String key) {
+        Object value = target;
+        int pos = 0;
+        while (value != null && pos < key.length()) {
+            boolean isIndex = key.charAt(pos) == '[';
+            int start = isIndex || key.charAt(pos) == '.' ? pos + 1 : pos;
+            int end = isIndex ? key.indexOf(']', start) : MappingIndex.segmentEnd(key, start);
+            if (end < 0 || end == start) return null;
+
+            String segment = key.substring(start, end);
+            if (!isIndex) value = value instanceof Map ? ((Map<?, ?>) value).get(segment) : valueOf(value, segment);
+            else if (value instanceof List && segment.chars().allMatch(Character::isDigit)) {
+                int i = Integer.parseInt(segment);
+                value = i < ((List<?>) value).size() ? ((List<?>) value).get(i) : null;
+            } else return null;
+            pos = isIndex ? end + 1 : end;
+        }
+        return value == null ? null : String.valueOf(value);
+    }
+
+    private static Object valueOf(Object existing, String field) {
+        if (existing instanceof BindObject) return ((BindObject) existing).get(field);
+        else return existing != null && hasProperty(existing, field) ? PropertyUtils.readProperty(existing, field) : null;
+    }
+
+    private static boolean hasProperty(Object bean, String field) {
+        return PropertyUtils.findPropertyDescriptor(bean.getClass(), field) != null;
+    }
+}
@@ -1,11 +1,8 @@
 package com.github.tminglei.bind;
 
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.io.IOException;
 import java.util.*;
 import java.util.function.Function;
 import java.util.regex.Pattern;
@@ -20,47 +17,52 @@ import static com.github.tminglei.bind.FrameworkUtils.*;
  */
 public class Processors implements Const {
     private static final Logger logger = LoggerFactory.getLogger(Processors.class);
-    private static final ObjectMapper objectMapper = new ObjectMapper();
 
     private Processors() {}
 
     ///////////////////////////////////  pre-defined pre-processors  //////////////////////////
 
     public static PreProcessor trim() {
-        return mkPreProcessorWithMeta((prefix, data, options) -> {
-            logger.debug("trimming '{}'", prefix);
-
-            return data.entrySet().stream()
-                    .map(e -> {
-                        if (!e.getKey().startsWith(prefix)) return e;
-                        else {
-                            String v = e.getValue();
-                            return entry(
-                                    e.getKey(),
-                                    v != null ? v.trim() : ""
-                            );
-                        }
-                    }).collect(Collectors.toMap(
-                            Map.Entry::getKey,
-                            Map.Entry::getValue
-                    ));
-            }, mkExtensionMeta(PRE_PROCESSOR_TRIM));
-        }
+        return replaceWith(String::trim, mkExtensionMeta(PRE_PROCESSOR_TRIM));
+    }
 
     public static PreProcessor omit(String str) {
-        return replaceMatched(Pattern.quote(str), "", mkExtensionMeta(PRE_PROCESSOR_OMIT, str));
+        return replaceWith(v -> v.replace(str, ""), mkExtensionMeta(PRE_PROCESSOR_OMIT, str));
     }
 
     public static PreProcessor omitLeft(String str) {
-        return replaceMatched("^" + Pattern.quote(str), "", mkExtensionMeta(PRE_PROCESSOR_OMIT_LEFT, str));
+        return replaceWith(v -> v.startsWith(str) ? v.substring(str.length()) : v,
+                mkExtensionMeta(PRE_PROCESSOR_OMIT_LEFT, str));
     }
 
     public static PreProcessor omitRight(String str) {
-        return replaceMatched(Pattern.quote(str) + "$", "", mkExtensionMeta(PRE_PROCESSOR_OMIT_RIGHT, str));
+        return replaceWith(v -> v.endsWith(str) ? v.substring(0, v.length() - str.length()) : v,
+                mkExtensionMeta(PRE_PROCESSOR_OMIT_RIGHT, str));
     }
 
     public static PreProcessor omitRedundant(String str) {
-        return replaceMatched("["+Pattern.quote(str)+"]+", str, mkExtensionMeta(PRE_PROCESSOR_OMIT_REDUNDANT, str));
+        // replace every run of chars in `str` with `str`, same as regex `[str]+`
+        return replaceWith(v -> {
+            StringBuilder result = null;
+            for (int i = 0; i < v.length(); ) {
+                int cp = v.codePointAt(i), len = Character.charCount(cp);
+                if (str.indexOf(cp) < 0) {
+                    if (result != null) result.appendCodePoint(cp);
+                    i += len;
+                } else {
+                    int end = i + len;
+                    while (end < v.length() && str.indexOf(v.codePointAt(end)) >= 0) {
+                        end += Character.charCount(v.codePointAt(end));
+                    }
+                    if (result == null && !v.substring(i, end).equals(str)) {
+                        result = new StringBuilder(v.length()).append(v, 0, i);
+                    }
+                    if (result != null) result.append(str);
+                    i = end;
+                }
+            }
+            return result == null ? v : result.toString();
+        }, mkExtensionMeta(PRE_PROCESSOR_OMIT_REDUNDANT, str));
     }
 
     public static PreProcessor omitMatched(String pattern) {
@@ -71,29 +73,19 @@ public class Processors implements Const {
         return replaceMatched(pattern, replacement, null);
     }
     static PreProcessor replaceMatched(String pattern, String replacement, ExtensionMeta meta) {
-        return mkPreProcessorWithMeta((prefix, data, options) -> {
-            logger.debug("replacing '{}' with '{}'", pattern, replacement);
-
-            return data.entrySet().stream()
-                    .map(e -> {
-                        if (!e.getKey().startsWith(prefix)) return e;
-                        else {
-                            String v = e.getValue();
-                            return entry(
-                                    e.getKey(),
-                                    v != null ? v.replaceAll(pattern, replacement) : ""
-                            );
-                        }
-                    }).collect(Collectors.toMap(
-                            Map.Entry::getKey,
-                            Map.Entry::getValue
-                    ));
-            }, meta != null ? meta : new ExtensionMeta(
-                PRE_PROCESSOR_REPLACE_MATCHED,
-                "replace(matched '" + pattern + "' with '" + replacement + "')",
-                Arrays.asList(pattern, replacement)));
+        Pattern compiled = Pattern.compile(pattern);
+        return replaceWith(v -> compiled.matcher(v).replaceAll(replacement),
+                meta != null ? meta : new ExtensionMeta(
+                    PRE_PROCESSOR_REPLACE_MATCHED,
+                    "replace(matched '" + pattern + "' with '" + replacement + "')",
+                    Arrays.asList(pattern, replacement)));
         }
 
+    // make a value-local pre-processor, which can be fused w/ its adjacent ones (ps: null value -+ "")
+    static PreProcessor replaceWith(Function<String, String> replace, ExtensionMeta meta) {
+        return new ValueProcessor(Collections.singletonList(replace), meta);
+    }
+
     /**
      * expand json string to map of data
      * @return new created pre-processor
@@ -108,15 +100,15 @@ public class Processors implements Const {
             String thePrefix = prefix == null ? prefix1 : prefix;
             String jsonStr = data.get(thePrefix);
 
-            Map<String, String> newData = new HashMap<>(data);
+            Map<String, String> newData = data instanceof CompactDataMap
+                    ? new CompactDataMap(data) : new HashMap<>(data);
             newData.remove(thePrefix); // remove old one to avoid disturbing other processing
 
             try {
                 if (isEmptyStr(jsonStr)) {
                     logger.warn("json string is '{}'", jsonStr);
                 } else {
-                    JsonNode json = objectMapper.readTree(jsonStr);
-                    newData.putAll(json2map(thePrefix, json));
+                    JsonFlattener.flatten(thePrefix, jsonStr, newData, JsonFlattener.DEFAULT_MAX_DEPTH);
                 }
                 return newData;
 
@@ -155,17 +147,17 @@ public class Processors implements Const {
             logger.debug("expanding list keys at '{}'", (prefix == null ? prefix1 : prefix));
 
             String thePrefix = prefix == null ? prefix1 : prefix;
-            Pattern p = Pattern.compile("^" + Pattern.quote(thePrefix) + "\\[[\\d]+\\].*");
-            return data.entrySet().stream()
-                    .map(e -> {
-                        if (p.matcher(e.getKey()).matches()) {
-                            String newKey = isEmptyStr(thePrefix) ? e.getValue() : thePrefix + "." + e.getValue();
-                            return entry(newKey, "true");
-                        } else return e;
-                    }).collect(Collectors.toMap(
-                            Map.Entry::getKey,
-                            Map.Entry::getValue
-                    ));
+            Map<String, String> newData = new HashMap<>(data);
+            for (String key : keysUnder(thePrefix + "[", data)) {
+                // matches: 'prefix[index]...'
+                int end = key.indexOf(']', thePrefix.length() + 1);
+                if (end > thePrefix.length() + 1 && isDigits(key, thePrefix.length() + 1, end)) {
+                    String value = newData.remove(key);
+                    String newKey = isEmptyStr(thePrefix) ? value : thePrefix + "." + value;
+                    newData.put(newKey, "true");
+                }
+            }
+            return newData;
             }, mkExtensionMeta(PRE_PROCESSOR_EXPAND_LIST_KEYS, prefix));
         }
 
@@ -179,29 +171,101 @@ public class Processors implements Const {
         return mkPreProcessorWithMeta((prefix, data, options) -> {
             logger.debug("changing prefix at '{}' from '{}' to '{}'", prefix, from, to);
 
-            return data.entrySet().stream()
-                    .map(e -> {
-                        if (!e.getKey().startsWith(prefix)) return e;
-                        else {
-                            String tail = e.getKey().substring(prefix.length())
-                                    .replaceFirst("^[\\.]?" + Pattern.quote(from), to)
-                                    .replaceFirst("^\\.", "");
-                            String newKey = isEmptyStr(tail) ? prefix
-                                    : (prefix + "." + tail).replaceFirst("^\\.", "");
-                            return entry(
-                                    newKey,
-                                    e.getValue()
-                            );
-                        }
-                    }).collect(Collectors.toMap(
-                            Map.Entry::getKey,
-                            Map.Entry::getValue
-                    ));
+            Map<String, String> newData = new HashMap<>(data);
+            Map<String, String> changed = new HashMap<>();
+            for (String key : keysUnder(prefix, data)) {
+                String tail = key.substring(prefix.length());
+                if (tail.startsWith("." + from)) tail = to + tail.substring(from.length() + 1);
+                else if (tail.startsWith(from)) tail = to + tail.substring(from.length());
+                if (tail.startsWith(".")) tail = tail.substring(1);
+
+                String newKey = isEmptyStr(tail) ? prefix : prefix + "." + tail;
+                if (newKey.startsWith(".")) newKey = newKey.substring(1);
+                changed.put(newKey, newData.remove(key));
+            }
+            newData.putAll(changed);
+            return newData;
             }, new ExtensionMeta(PRE_PROCESSOR_CHANGE_PREFIX,
                     "changePrefix(from '" +from+ "' to '" +to+ "')",
                     Arrays.asList(from, to)));
         }
 
+    /**
+     * fuse adjacent value-local pre-processors, so that each value will be processed in one pass
+     * @param processors pre-processors
+     * @return fused pre-processors
+     */
+    static List<PreProcessor> fuse(List<PreProcessor> processors) {
+        List<PreProcessor> result = new ArrayList<>(processors.size());
+        for (PreProcessor processor : processors) {
+            int last = result.size() - 1;
+            if (processor instanceof ValueProcessor && last >= 0 && result.get(last) instanceof ValueProcessor) {
+                result.set(last, ((ValueProcessor) result.get(last)).andThen((ValueProcessor) processor));
+            } else result.add(processor);
+        }
+        return result;
+    }
+
+    // pre-processor which only replaces the values under prefix, or the value of prefix itself for SINGLE input
+    static final class ValueProcessor implements PreProcessor {
+        private final List<Function<String, String>> steps;
+        private final ExtensionMeta meta;
+
+        ValueProcessor(List<Function<String, String>> steps, ExtensionMeta meta) {
+            this.steps = unmodifiableList(steps);
+            this.meta = meta;
+        }
+
+        ValueProcessor andThen(ValueProcessor next) {
+            String desc = (meta == null ? "anon" : meta.desc) + " >> " + (next.meta == null ? "anon" : next.meta.desc);
+            return new ValueProcessor(mergeList(steps, next.steps), new ExtensionMeta("fused", desc, null));
+        }
+
+        String process(String value) {
+            // like applying them one by one, null value will be converted to "" by the first step
+            String result = value == null ? "" : steps.get(0).apply(value);
+            for (int i = 1; i < steps.size(); i++) {
+                result = steps.get(i).apply(result);
+            }
+            return result;
+        }
+
+        @Override
+        public ExtensionMeta meta() {
+            return meta;
+        }
+
+        @Override
+        public Map<String, String> apply(String prefix, Map<String, String> data, Options options) {
+            logger.debug("processing values at '{}' with {}", prefix, this);
+
+            Iterable<String> keys = options._inputMode() == InputMode.SINGLE
+                    ? (data.containsKey(prefix) ? Collections.singletonList(prefix) : Collections.emptyList())
+                    : keysUnder(prefix, data);
+
+            Map<String, String> changed = new HashMap<>();
+            for (String key : keys) {
+                String v = data.get(key);
+                String newV = process(v);
+                if (newV != v) changed.put(key, newV);
+            }
+            return overlay(data, changed);
+        }
+
+        @Override
+        public String toString() {
+            return meta == null ? "anon" : meta.desc;
+        }
+    }
+
+    private static boolean isDigits(String str, int start, int end) {
+        for (int i = start; i < end; i++) {
+            char c = str.charAt(i);
+            if (c < '0' || c > '9') return false;
+        }
+        return true;
+    }
+
     /////////////////////////////////  pre-defined post err-processors  /////////////////////
 
     /**
@@ -1,5 +1,7 @@
 package com.github.tminglei.bind;
 
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
 import java.util.*;
 
 import com.github.tminglei.bind.spi.*;
@@ -16,7 +18,53 @@ public class Simple extends Framework {
      * @return new created data map
      */
     public static Map<String, String> data(Map<String, String[]> params, Map.Entry<String, String>... others) {
-        Map<String, String> result = new HashMap<>();
+        return expand(params, others, new HashMap<>());
+    }
+
+    /**
+     * same as `data`, but the result is a memory compact map, which is preferred for large inputs
+     * @param params params of type of Map(String -* String[])
+     * @param others other params
+     * @return new created data map
+     */
+    public static Map<String, String> compactData(Map<String, String[]> params, Map.Entry<String, String>... others) {
+        return expand(params, others, new CompactDataMap());
+    }
+
+    /**
+     * same as `data`, but the result is a read-only view over the params, which won't be copied
+     * @param params params of type of Map(String -* String[])
+     * @param others other params
+     * @return new created data view
+     */
+    public static Map<String, String> dataView(Map<String, String[]> params, Map.Entry<String, String>... others) {
+        Map<String, String> others1 = others.length == 0 ? Collections.emptyMap() : new LinkedHashMap<>();
+        for(Map.Entry<String, String> entry : others) {
+            others1.put(entry.getKey(), entry.getValue());
+        }
+        return new ParamsDataView(params, others1);
+    }
+
+    /**
+     * create data map from an `application/x-www-form-urlencoded` body, with same keys/values
+     * as `data` for the related params; values are decoded on first access
+     * @param body the form body
+     * @param charset charset used to decode names/values
+     * @return new created data view
+     * @throws IllegalArgumentException if the body is malformed (e.g. a bad percent-escape)
+     */
+    public static Map<String, String> formData(byte[] body, Charset charset) {
+        return formData(ByteBuffer.wrap(body), charset);
+    }
+    public static Map<String, String> formData(ByteBuffer body, Charset charset) {
+        return formData(body, charset, UrlEncodedData.DEFAULT_MAX_BYTES, UrlEncodedData.DEFAULT_MAX_FIELDS);
+    }
+    public static Map<String, String> formData(ByteBuffer body, Charset charset, int maxBytes, int maxFields) {
+        return UrlEncodedData.parse(body, charset, maxBytes, maxFields);
+    }
+
+    private static Map<String, String> expand(Map<String, String[]> params, Map.Entry<String, String>[] others,
+                                              Map<String, String> result) {
         // expand params
         for(Map.Entry<String, String[]> entry : params.entrySet()) {
             if (entry.getValue() == null || entry.getValue().length == 0)
@@ -24,8 +72,10 @@ public class Simple extends Framework {
             else if (entry.getValue().length == 1 && ! entry.getKey().endsWith("[]"))
                 result.put(entry.getKey(), entry.getValue()[0]);
             else {
+                String base = entry.getKey().endsWith("[]")
+                        ? entry.getKey().substring(0, entry.getKey().length() - 2) : entry.getKey();
                 for(int i = 0; i < entry.getValue().length; i++) {
-                    String key = entry.getKey().replaceAll("\\[\\]$", "") + "[" + i + "]";
+                    String key = base + "[" + i + "]";
                     result.put(key, entry.getValue()[i]);
                 }
             }
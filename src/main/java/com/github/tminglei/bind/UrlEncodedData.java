@@ -0,0 +1,198 @@
+package com.github.tminglei.bind;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.*;
+
+/**
+ * read-only data view parsed from an `application/x-www-form-urlencoded` body, which has same
+ * keys/values as `Simple.data(params)` for the related servlet params
+ *
+ * NOTE: names are decoded when parsing, and values are checked when parsing, but only decoded on
+ *       first access, so the body is expected to be unchanged while the view is in use
+ */
+final class UrlEncodedData extends AbstractMap<String, String> {
+    static final int DEFAULT_MAX_BYTES = 200000;
+    static final int DEFAULT_MAX_FIELDS = 1000;
+
+    private final byte[] bytes;
+    private final Charset charset;
+    // per field: value range in bytes, and decoded value (lazily)
+    private final int[] valueStarts;
+    private final int[] valueEnds;
+    private final String[] values;
+    // data key -* field index
+    private final Map<String, Integer> index;
+
+    private UrlEncodedData(byte[] bytes, Charset charset, int[] valueStarts, int[] valueEnds,
+                           Map<String, Integer> index) {
+        this.bytes = bytes;
+        this.charset = charset;
+        this.valueStarts = valueStarts;
+        this.valueEnds = valueEnds;
+        this.values = new String[valueStarts.length];
+        this.index = index;
+    }
+
+    /**
+     * parse url encoded form body
+     * @param body the form body
+     * @param charset charset used to decode names/values
+     * @param maxBytes max body size in bytes
+     * @param maxFields max count of fields
+     * @return data view
+     * @throws IllegalArgumentException if the body is too large or malformed
+     */
+    static UrlEncodedData parse(ByteBuffer body, Charset charset, int maxBytes, int maxFields) {
+        if (body.remaining() > maxBytes)
+            throw new IllegalArgumentException("Form body size " + body.remaining() + " exceeds max " + maxBytes);
+
+        byte[] bytes;
+        int start, end;
+        if (body.hasArray()) {
+            bytes = body.array();
+            start = body.arrayOffset() + body.position();
+            end = body.arrayOffset() + body.limit();
+        } else {
+            bytes = new byte[body.remaining()];
+            body.duplicate().get(bytes);
+            start = 0;
+            end = bytes.length;
+        }
+
+        // pass 1: find fields, decode their names, and check their values' percent-escapes
+        int count = 0;
+        int[] valueStarts = new int[16], valueEnds = new int[16];
+        String[] names = new String[16];
+        Map<String, Integer> counts = new HashMap<>();
+        for (int pos = start; pos < end; pos++) {
+            int fieldEnd = indexOf(bytes, (byte) '&', pos, end);
+            if (fieldEnd > pos) {
+                if (count == maxFields)
+                    throw new IllegalArgumentException("Form fields exceed max " + maxFields);
+                if (count == names.length) {
+                    valueStarts = Arrays.copyOf(valueStarts, count * 2);
+                    valueEnds = Arrays.copyOf(valueEnds, count * 2);
+                    names = Arrays.copyOf(names, count * 2);
+                }
+                int nameEnd = indexOf(bytes, (byte) '=', pos, fieldEnd);
+                names[count] = decode(bytes, pos, nameEnd, charset);
+                valueStarts[count] = Math.min(nameEnd + 1, fieldEnd);
+                valueEnds[count] = fieldEnd;
+                checkEscapes(bytes, valueStarts[count], fieldEnd);
+                counts.merge(names[count], 1, Integer::sum);
+                count++;
+            }
+            pos = fieldEnd;
+        }
+
+        // pass 2: assign data keys, same as `Simple.data`
+        Map<String, Integer> index = new HashMap<>();
+        Map<String, Integer> nexts = new HashMap<>();
+        for (int i = 0; i < count; i++) {
+            String name = names[i];
+            if (counts.get(name) == 1 && !name.endsWith("[]")) index.put(name, i);
+            else {
+                String base = name.endsWith("[]") ? name.substring(0, name.length() - 2) : name;
+                int next = nexts.merge(name, 1, Integer::sum) - 1;
+                index.put(base + "[" + next + "]", i);
+            }
+        }
+
+        return new UrlEncodedData(bytes, charset, Arrays.copyOf(valueStarts, count),
+                Arrays.copyOf(valueEnds, count), index);
+    }
+
+    @Override
+    public String get(Object key) {
+        Integer i = index.get(key);
+        return i == null ? null : value(i);
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return index.containsKey(key);
+    }
+
+    @Override
+    public int size() {
+        return index.size();
+    }
+
+    @Override
+    public Set<Entry<String, String>> entrySet() {
+        return new AbstractSet<Entry<String, String>>() {
+            @Override
+            public Iterator<Entry<String, String>> iterator() {
+                Iterator<Entry<String, Integer>> it = index.entrySet().iterator();
+                return new Iterator<Entry<String, String>>() {
+                    @Override
+                    public boolean hasNext() {
+                        return it.hasNext();
+                    }
+                    @Override
+                    public Entry<String, String> next() {
+                        Entry<String, Integer> entry = it.next();
+                        return new SimpleImmutableEntry<>(entry.getKey(), value(entry.getValue()));
+                    }
+                };
+            }
+            @Override
+            public int size() {
+                return index.size();
+            }
+        };
+    }
+
+    /////////////////////////////////////////////////////////////////////////////////////
+
+    private String value(int i) {
+        String value = values[i];
+        if (value == null) {
+            value = decode(bytes, valueStarts[i], valueEnds[i], charset);
+            // benign race: a String is immutable (safely published w/o sync), and racing decoders
+            // produce equal values, so a reader sees either null (and decodes again) or a full value
+            values[i] = value;
+        }
+        return value;
+    }
+
+    private static int indexOf(byte[] bytes, byte b, int start, int end) {
+        for (int i = start; i < end; i++) {
+            if (bytes[i] == b) return i;
+        }
+        return end;
+    }
+
+    // check percent-escapes in bytes[start, end), w/o decoding them
+    static void checkEscapes(byte[] bytes, int start, int end) {
+        for (int i = indexOf(bytes, (byte) '%', start, end); i < end; i = indexOf(bytes, (byte) '%', i + 3, end)) {
+            if (i + 2 >= end || Character.digit(bytes[i + 1], 16) < 0 || Character.digit(bytes[i + 2], 16) < 0)
+                throw new IllegalArgumentException("Illegal percent encoding at position " + (i - start));
+        }
+    }
+
+    // percent-decode bytes[start, end), with '+' as space
+    static String decode(byte[] bytes, int start, int end, Charset charset) {
+        int i = start;
+        while (i < end && bytes[i] != '%' && bytes[i] != '+') i++;
+        if (i == end) return new String(bytes, start, end - start, charset);
+
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(end - start);
+        buffer.write(bytes, start, i - start);
+        for (; i < end; i++) {
+            byte b = bytes[i];
+            if (b == '+') buffer.write(' ');
+            else if (b != '%') buffer.write(b);
+            else {
+                int hi = i + 2 < end ? Character.digit(bytes[i + 1], 16) : -1;
+                int lo = hi >= 0 ? Character.digit(bytes[i + 2], 16) : -1;
+                if (lo < 0) throw new IllegalArgumentException("Illegal percent encoding at position " + (i - start));
+                buffer.write(hi * 16 + lo);
+                i += 2;
+            }
+        }
+        return new String(buffer.toByteArray(), charset);
+    }
+}
@@ -0,0 +1,99 @@
+package com.github.tminglei.bind;
+
+import java.util.*;
+
+/**
+ * result of `FormBinder.revalidate`, which holding (processed) validation errors, and the errors
+ * of the validated mapping nodes, which can be reused to re-validate the changed data
+ */
+public class ValidationResult<Err> {
+    final Framework.Mapping<?> mapping;
+    final String root;
+    final NodeErrors nodeErrors;
+    private final Optional<Err> errors;
+
+    ValidationResult(Framework.Mapping<?> mapping, String root, Optional<Err> errors,
+                     NodeErrors nodeErrors) {
+        this.mapping = mapping;
+        this.root = root;
+        this.errors = errors;
+        this.nodeErrors = nodeErrors;
+    }
+
+    /**
+     * @return the (processed) errors optional
+     */
+    public Optional<Err> errors() {
+        return errors;
+    }
+
+    /**
+     * errors of the validated mapping nodes, keyed by their full names, as a layer over the previous
+     * result's (w/o copying them): a node re-validated in this layer hides the previous errors of its
+     * subtree, while a reused node carries its subtree's forward
+     */
+    static final class NodeErrors {
+        static final NodeErrors EMPTY = new NodeErrors(null);
+        // layers to look through, before they are flattened into one
+        private static final int MAX_DEPTH = 8;
+
+        private final NodeErrors base;
+        private final int depth;
+        private final Map<String, List<Map.Entry<String, String>>> errors = new HashMap<>();
+        private final Set<String> reused = new HashSet<>();
+
+        NodeErrors(NodeErrors base) {
+            this.base = base == null || base.depth < MAX_DEPTH ? base : base.flattened();
+            this.depth = this.base == null ? 0 : this.base.depth + 1;
+        }
+
+        List<Map.Entry<String, String>> get(String name) {
+            for (NodeErrors layer = this; layer != null; layer = layer.base) {
+                List<Map.Entry<String, String>> nodeErrors = layer.errors.get(name);
+                if (nodeErrors != null) return nodeErrors;
+                if (layer.hides(name)) return null;
+            }
+            return null;
+        }
+
+        // errors of a re-validated node
+        void put(String name, List<Map.Entry<String, String>> nodeErrors) {
+            errors.put(name, nodeErrors);
+        }
+
+        // errors of a node reused from the previous result, w/ its subtree's
+        void reuse(String name, List<Map.Entry<String, String>> nodeErrors) {
+            errors.put(name, nodeErrors);
+            reused.add(name);
+        }
+
+        // whether the nearest ancestor of the name in this layer was re-validated
+        private boolean hides(String name) {
+            for (int i = name.length() - 1; i > 0; i--) {
+                char c = name.charAt(i);
+                if (c != '.' && c != '[') continue;
+                String ancestor = name.substring(0, i);
+                if (errors.containsKey(ancestor)) return !reused.contains(ancestor);
+            }
+            return false;
+        }
+
+        // a single layer w/ the visible errors of all layers
+        private NodeErrors flattened() {
+            NodeErrors flat = new NodeErrors(null);
+            flat.errors.putAll(visible());
+            return flat;
+        }
+
+        private Map<String, List<Map.Entry<String, String>>> visible() {
+            Map<String, List<Map.Entry<String, String>>> result = new HashMap<>();
+            if (base != null) {
+                for (Map.Entry<String, List<Map.Entry<String, String>>> e : base.visible().entrySet()) {
+                    if (!hides(e.getKey())) result.put(e.getKey(), e.getValue());
+                }
+            }
+            result.putAll(errors);
+            return result;
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.github.tminglei.bind;
+
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.util.*;
+
+import static org.testng.Assert.*;
+import static com.github.tminglei.bind.Utils.*;
+
+public class BundleMessagesTest {
+
+    @BeforeClass
+    public void start() {
+        System.out.println(cyan("test bundle messages"));
+    }
+
+    @Test
+    public void testCachedPerLocale() {
+        System.out.println(green(">> cached per locale"));
+
+        BundleMessages messages = BundleMessages.of(Locale.ENGLISH);
+
+        assertSame(BundleMessages.of(Locale.ENGLISH), messages);
+        assertSame(BundleMessages.of(BundleMessages.DEFAULT_BUNDLE, Locale.ENGLISH), messages);
+        assertNotSame(BundleMessages.of(Locale.CHINESE), messages);
+        assertEquals(messages.locale(), Locale.ENGLISH);
+    }
+
+    @Test
+    public void testGetAndFormat() {
+        System.out.println(green(">> get and format"));
+
+        BundleMessages messages = BundleMessages.of(Locale.ENGLISH);
+
+        assertEquals(messages.get("error.required"), "'%s' is required");
+        assertEquals(messages.get("not.exists"), null);
+        assertEquals(messages.format("error.required", "name"), "'name' is required");
+        assertEquals(messages.format("error.maxlength", "abc", 2, true),
+                "'abc' must be shorter than 2 characters (include boundary: true)");
+        assertEquals(messages.format("error.oneof", "x", Arrays.asList("a", "b")),
+                "'x' must be one of [a, b]");
+
+        try {
+            messages.format("not.exists", "x");
+            fail("expected MissingResourceException");
+        } catch (MissingResourceException e) {
+            assertEquals(e.getKey(), "not.exists");
+        }
+    }
+
+    @Test
+    public void testTemplate() {
+        System.out.println(green(">> pre-parsed template"));
+
+        Object[][] cases = {
+            { "plain text", new Object[0] },
+            { "'%s' is %d%% done%n", new Object[]{ "job", 50 } },
+            { "%2$s before %1$s", new Object[]{ "a", "b" } },
+            { "%s / %s / %s", new Object[]{ null, 3L, true } },
+            { "%5.2f, %-4s|, %x", new Object[]{ 3.14159, "ab", 255 } },
+            { "%d of %s, again %<s", new Object[]{ 7, "seven" } },
+            { "%d", new Object[]{ new java.math.BigInteger("12345678901234567890") } },
+        };
+        for (Object[] c : cases) {
+            String template = (String) c[0];
+            Object[] args = (Object[]) c[1];
+            assertEquals(new BundleMessages.Template(template, Locale.ENGLISH).format(args),
+                    String.format(Locale.ENGLISH, template, args));
+        }
+
+        try {
+            new BundleMessages.Template("%s and %s", Locale.ENGLISH).format("one");
+            fail("expected MissingFormatArgumentException");
+        } catch (MissingFormatArgumentException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testUsedByConstraints() {
+        System.out.println(green(">> used by constraints"));
+
+        Messages messages = BundleMessages.of(Locale.ENGLISH);
+        Map<String, String> data = FrameworkUtils.newmap(FrameworkUtils.entry("count", "t1"));
+
+        assertEquals(Mappings.intv().validate("count", data, messages, Options.EMPTY),
+                Arrays.asList(FrameworkUtils.entry("count", "'t1' must be a number")));
+        assertEquals(Mappings.text(Constraints.maxLength(1)).validate("count", data, messages, Options.EMPTY),
+                Arrays.asList(FrameworkUtils.entry("count", "'t1' must be shorter than 1 characters (include boundary: true)")));
+    }
+}
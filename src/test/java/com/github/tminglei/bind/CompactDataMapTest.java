@@ -0,0 +1,117 @@
+package com.github.tminglei.bind;
+
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.util.*;
+
+import com.github.tminglei.bind.spi.InputMode;
+
+import static org.testng.Assert.*;
+import static com.github.tminglei.bind.Utils.*;
+import static com.github.tminglei.bind.Mappings.*;
+
+public class CompactDataMapTest {
+
+    @BeforeClass
+    public void start() {
+        System.out.println(cyan("test compact data map"));
+    }
+
+    @Test
+    public void testMapContract() {
+        System.out.println(green(">> map contract"));
+
+        Map<String, String> expected = new HashMap<>();
+        Map<String, String> data = new CompactDataMap();
+        for (String key : Arrays.asList("", "a", "a.b", "a.b[0]", "a.b[1].c", "a..b", "[0]", ".x", "ab", "a[10]", "a[1]")) {
+            assertEquals(data.put(key, key + "!"), expected.put(key, key + "!"));
+        }
+        for (int i = 0; i < 20; i++) {
+            assertEquals(data.put("list[" + i + "]", null), expected.put("list[" + i + "]", null));
+        }
+        assertEquals(data.put("a.b", "changed"), expected.put("a.b", "changed"));
+
+        assertEquals(data.size(), expected.size());
+        assertEquals(data, expected);
+        assertEquals(new HashMap<>(data), expected);
+        assertTrue(data.containsKey("list[3]"));
+        assertEquals(data.get("list[3]"), null);
+        assertFalse(data.containsKey("a.b[1]"));
+        assertFalse(data.containsKey("list[20]"));
+
+        assertEquals(data.remove("a.b"), "changed");
+        assertEquals(data.remove("a.b"), null);
+        expected.remove("a.b");
+        assertEquals(data, expected);
+
+        data.keySet().removeIf(k -> k.startsWith("list"));
+        expected.keySet().removeIf(k -> k.startsWith("list"));
+        assertEquals(data, expected);
+        assertEquals(data.size(), expected.size());
+    }
+
+    @Test
+    public void testSharedSegmentsAndValues() {
+        System.out.println(green(">> shared segments and values"));
+
+        CompactDataMap data = CompactDataMap.fromJson("items",
+                "[{\"name\": \"x\", \"ok\": true}, {\"name\": \"y\", \"ok\": true}]");
+        Map<String, String> expected = FrameworkUtils.json2map("items",
+                "[{\"name\": \"x\", \"ok\": true}, {\"name\": \"y\", \"ok\": true}]");
+        assertEquals(data, expected);
+
+        String v1 = new String("USD"), v2 = new String("USD");
+        data.put("price[0].currency", v1);
+        data.put("price[1].currency", v2);
+        assertSame(data.get("price[1].currency"), v1);
+
+        // many index segments (not pooled) under one parent
+        for (int i = 0; i < 2000; i++) data.put("big[" + i + "].name", "n" + i);
+        assertEquals(data.get("big[1999].name"), "n1999");
+        assertEquals(data.containsKey("big[2000].name"), false);
+        assertEquals(data.size(), expected.size() + 2 + 2000);
+    }
+
+    @Test
+    public void testBinding() {
+        System.out.println(green(">> used in binding"));
+
+        Map<String, String[]> params = new HashMap<>();
+        params.put("ids[]", new String[]{ "1", "2", "3" });
+        params.put("name", new String[]{ "t1" });
+        Map<String, String> data = Simple.compactData(params);
+
+        assertTrue(data instanceof CompactDataMap);
+        assertEquals(data, Simple.data(params));
+        assertEquals(list(intv()).validate("ids", data, (key) -> "%s", Options.EMPTY), Collections.emptyList());
+        assertEquals(list(intv()).convert("ids", data), Arrays.asList(1, 2, 3));
+    }
+
+    @Test
+    public void testPrefixLookups() {
+        System.out.println(green(">> prefix lookups"));
+
+        Map<String, String> expected = new HashMap<>();
+        CompactDataMap data = new CompactDataMap();
+        for (String key : Arrays.asList("a", "a.b", "ab.c", "a.b[0]", "a.b[2].c", "a.b[10]", "a.b[x]", "a.bc", "z[1]")) {
+            expected.put(key, "v");
+            data.put(key, "v");
+        }
+        data.put("a.b[7]", "v");
+        data.remove("a.b[7]");      // leaves an empty node
+
+        for (String prefix : Arrays.asList("", "a", "a.", "a.b", "a.b[", "a.b[1", "a.b[2].", "ab", "b", "z[")) {
+            assertEquals(new HashSet<>(data.keysUnder(prefix)),
+                    new HashSet<>((Collection<String>) FrameworkUtils.keysUnder(prefix, expected)), prefix);
+        }
+        for (String name : Arrays.asList("", "a", "a.b", "a.b[2]", "ab", "z", "x")) {
+            assertEquals(FrameworkUtils.indexes(name, data), FrameworkUtils.indexes(name, expected), name);
+            assertEquals(FrameworkUtils.isEmptyInput(name, data, InputMode.MULTIPLE),
+                    FrameworkUtils.isEmptyInput(name, expected, InputMode.MULTIPLE), name);
+            assertEquals(FrameworkUtils.isEmptyInput(name, data, InputMode.POLYMORPHIC),
+                    FrameworkUtils.isEmptyInput(name, expected, InputMode.POLYMORPHIC), name);
+        }
+        assertEquals(data.indexes("a.b"), Arrays.asList(0, 2, 10));
+    }
+}
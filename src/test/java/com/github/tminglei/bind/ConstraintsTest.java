@@ -3,9 +3,16 @@ package com.github.tminglei.bind;
 import org.testng.annotations.BeforeClass;
 import org.testng.annotations.Test;
 
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.List;
+import java.util.Map;
 import java.util.ResourceBundle;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 
 import com.github.tminglei.bind.spi.*;
@@ -189,6 +196,89 @@ public class ConstraintsTest {
                 Arrays.asList(entry("t.a", "'ts': is not one of [a, b, c]")));
     }
 
+    @Test
+    public void testOneOf_Compact() {
+        System.out.println(green(">> one of - compact"));
+
+        List<String> codes = new ArrayList<>();
+        for (int i = 0; i < 50000; i++) codes.add("SKU" + i);
+        codes.add("中文");
+        Constraint oneof = Constraints.oneOf(codes, null, true);
+        Options options = new Options()._label("")._inputMode(InputMode.SINGLE);
+
+        for (String code : Arrays.asList("SKU0", "SKU49999", "中文")) {
+            assertEquals(oneof.apply("", newmap(entry("", code)), messages, options), Collections.EMPTY_LIST);
+        }
+        for (String code : Arrays.asList("SKU50000", "sku1", "", null, "中")) {
+            assertEquals(oneof.apply("", newmap(entry("", code)), messages, options).size(), 1);
+        }
+
+        Constraint small = Constraints.oneOf(Arrays.asList("a", null, "b", "a"), null, true);
+        assertEquals(small.apply("", newmap(entry("", null)), messages, options), Collections.EMPTY_LIST);
+        assertEquals(small.apply("", newmap(entry("", "t")), messages, options),
+                Arrays.asList(entry("", "'t' must be one of [a, null, b, a]")));
+    }
+
+    @Test
+    public void testOneOf_SortedSet() {
+        System.out.println(green(">> one of - sorted set"));
+
+        Set<String> values = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
+        values.addAll(Arrays.asList("b", "A"));
+        Constraint oneof = Constraints.oneOf(values);
+        Options options = new Options()._label("")._inputMode(InputMode.SINGLE);
+
+        assertEquals(oneof.apply("", newmap(entry("", "a")), messages, options), Collections.EMPTY_LIST);
+        assertEquals(oneof.apply("", newmap(entry("", "B")), messages, options), Collections.EMPTY_LIST);
+        assertEquals(oneof.apply("", newmap(entry("", "c")), messages, options),
+                Arrays.asList(entry("", "'c' must be one of [A, b]")));
+        assertEquals(oneof.meta().params, Arrays.asList(Arrays.asList("A", "b")));
+    }
+
+    // memoized test
+
+    @Test
+    public void testMemoized() {
+        System.out.println(green(">> memoized"));
+
+        AtomicInteger checks = new AtomicInteger();
+        Constraint checksum = mkSimpleConstraint((label, vString, messages) -> {
+            checks.incrementAndGet();
+            return vString.length() % 2 == 0 ? null : "'" + label + "' bad checksum";
+        }, null);
+        ConstraintCache cache = new ConstraintCache(2, Duration.ofHours(1));
+        Constraint memoized = Constraints.memoized(checksum, cache);
+        Options options = new Options()._label("iban")._inputMode(InputMode.SINGLE);
+
+        for (int i = 0; i < 3; i++) {
+            assertEquals(memoized.apply("a[" + i + "]", newmap(entry("a[" + i + "]", "xx")), messages, options),
+                    Collections.EMPTY_LIST);
+            assertEquals(memoized.apply("b", newmap(entry("b", "x")), messages, options),
+                    Arrays.asList(entry("b", "'iban' bad checksum")));
+        }
+        assertEquals(checks.get(), 2);
+        assertEquals(cache.hitCount(), 4L);
+        assertEquals(cache.missCount(), 2L);
+
+        // cached failure is re-checked w/ other messages
+        Messages messages1 = (key) -> bundle.getString(key);
+        memoized.apply("b", newmap(entry("b", "x")), messages1, options);
+        assertEquals(checks.get(), 3);
+
+        // evicted in insertion order
+        memoized.apply("c", newmap(entry("c", "xxxx")), messages, options);
+        assertEquals(cache.size(), 2);
+        assertEquals(cache.evictionCount(), 1L);
+        memoized.apply("a", newmap(entry("a", "xx")), messages, options);
+        assertEquals(checks.get(), 5);
+
+        // expired
+        Constraint expiring = Constraints.memoized(checksum, 10, Duration.ZERO);
+        expiring.apply("a", newmap(entry("a", "xx")), messages, options);
+        expiring.apply("a", newmap(entry("a", "xx")), messages, options);
+        assertEquals(checks.get(), 7);
+    }
+
     // pattern test
 
     @Test
@@ -326,4 +416,36 @@ public class ConstraintsTest {
                         .stream().collect(Collectors.toSet()));
     }
 
+    // fused constraints test
+
+    @Test
+    public void testFused() {
+        System.out.println(green(">> fused built-in constraints"));
+
+        Constraint custom = mkSimpleConstraint((label, vString, messages) ->
+                "bad".equals(vString) ? "'" + label + "' is bad" : null, null);
+        List<Constraint> constraints = Arrays.asList(Constraints.required(), Constraints.minLength(2),
+                Constraints.maxLength(5, "%s: too long"), Constraints.pattern("[a-z@.]*"),
+                custom, Constraints.oneOf(Arrays.asList("ab", "bad", "x@y.z")), Constraints.email());
+
+        List<Constraint> fused = Constraints.fuse(constraints);
+        assertEquals(fused.size(), 3);
+        assertEquals(fused.get(0).toString(), "required() :: minLength(2) :: maxLength(5) :: pattern([a-z@.]*)");
+        assertSame(fused.get(1), custom);
+
+        for (String value : Arrays.asList(null, "", "a", "ab", "bad", "abcdef", "AB", "x@y.z", "ba")) {
+            for (boolean eager : Arrays.asList(false, true)) {
+                Options options = new Options()._label("field").eagerCheck(eager)._inputMode(InputMode.SINGLE);
+                Map<String, String> data = newmap(entry("a.b", value));
+                assertEquals(validateRec("a.b", data, messages, options, fused),
+                        validateRec("a.b", data, messages, options, constraints));
+            }
+        }
+
+        // wrong input is reported by `required` as before
+        Options options = new Options()._inputMode(InputMode.SINGLE);
+        Map<String, String> data = newmap(entry("a.b[0]", "x"));
+        assertEquals(validateRec("a.b", data, messages, options, fused),
+                validateRec("a.b", data, messages, options, constraints));
+    }
 }
@@ -3,10 +3,12 @@ package com.github.tminglei.bind;
 import org.testng.annotations.BeforeClass;
 import org.testng.annotations.Test;
 
+import java.time.Duration;
 import java.util.Arrays;
 import java.util.Calendar;
 import java.util.Collections;
 import java.util.ResourceBundle;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import com.github.tminglei.bind.spi.*;
 
@@ -79,4 +81,28 @@ public class ExtraConstraintsTest {
         assertEquals(max.apply("xx", c2, messages).size(), 1);
     }
 
+    // memoized test
+
+    @Test
+    public void testMemoized() {
+        System.out.println(green(">> memoized"));
+
+        AtomicInteger checks = new AtomicInteger();
+        ExtraConstraint<Integer> max = Constraints.max(10, "%s cannot > %s");
+        ExtraConstraint<Integer> counted = (label, value, messages) -> {
+            checks.incrementAndGet();
+            return max.apply(label, value, messages);
+        };
+        ConstraintCache cache = new ConstraintCache(100, Duration.ofHours(1));
+        ExtraConstraint<Integer> memoized = Constraints.memoized(counted, cache);
+
+        for (int i = 0; i < 3; i++) {
+            assertEquals(memoized.apply("xx", 6, messages), Collections.EMPTY_LIST);
+            assertEquals(memoized.apply("xx", 13, messages), Arrays.asList("13 cannot > 10"));
+        }
+        assertEquals(checks.get(), 2);
+        assertEquals(cache.hitCount(), 4L);
+        assertEquals(cache.missCount(), 2L);
+    }
+
 }
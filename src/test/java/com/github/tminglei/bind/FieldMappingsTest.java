@@ -9,6 +9,8 @@ import java.time.*;
 import java.util.*;
 import java.util.stream.Collectors;
 
+import com.github.tminglei.bind.spi.Constraint;
+
 import static org.testng.Assert.*;
 import static com.github.tminglei.bind.Simple.*;
 import static com.github.tminglei.bind.Constraints.*;
@@ -702,4 +704,35 @@ public class FieldMappingsTest {
         assertEquals(time.convert("time", data), null);
     }
 
+    // adaptive order test
+
+    @Test
+    public void testText_AdaptiveOrder() {
+        System.out.println(green(">> text - adaptive order"));
+
+        Constraint noX = mkSimpleConstraint((label, vString, messages) -> {
+            long hash = 0;
+            for (int i = 0; i < 1000; i++) hash = hash * 31 + (vString + i).hashCode();
+            return hash != 0 && vString != null && vString.contains("x") ? "no x" : null;
+        }, null);
+        Mapping<String> text = Mappings.text(noX, maxLength(3, "too long"));
+        Mapping<String> text1 = Mappings.text(noX, orderSensitive(minLength(1, "too short")), maxLength(3, "too long"));
+        Options options = Options.EMPTY.adaptiveOrder(true);
+
+        for (int i = 0; i < 4096; i++) {
+            Map<String, String> data = newmap(entry("text", i % 2 == 0 ? "ab" : "abcd"));
+            text.validate("text", data, messages, options);
+            text1.validate("text", data, messages, options);
+        }
+
+        Map<String, String> data = newmap(entry("text", "xxxx"));
+        // cheaper and more likely rejecting one was moved ahead
+        assertEquals(text.validate("text", data, messages, options), Arrays.asList(entry("text", "too long")));
+        // but not across the order sensitive one
+        assertEquals(text1.validate("text", data, messages, options), Arrays.asList(entry("text", "no x")));
+        // declared order is used if not enabled, or eager check
+        assertEquals(text.validate("text", data, messages, Options.EMPTY), Arrays.asList(entry("text", "no x")));
+        assertEquals(text.validate("text", data, messages, options.eagerCheck(true)),
+                Arrays.asList(entry("text", "no x"), entry("text", "too long")));
+    }
 }
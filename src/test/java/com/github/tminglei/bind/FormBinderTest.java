@@ -5,6 +5,8 @@ import org.testng.annotations.Test;
 
 import java.util.*;
 
+import com.github.tminglei.bind.spi.Constraint;
+
 import static org.testng.Assert.*;
 import static com.github.tminglei.bind.Simple.*;
 import static com.github.tminglei.bind.Mappings.*;
@@ -205,4 +207,443 @@ public class FormBinderTest {
                 entry("data.email", Arrays.asList("email is required"))));
     }
 
+    // result cache test
+
+    @Test
+    public void testBind_WithResultCache() {
+        System.out.println(green(">> bind - with result cache"));
+
+        Mapping<BindObject> mapping1 = mapping(
+                field("id", longv(required())),
+                field("email", text(maxLength(20), email())),
+                field("dates", list(date("yyyy-MM-dd"))),
+                field("count", intv().verifying(min(3), max(10)))
+            );
+        FormBinder binder = new FormBinder(messages).resultCache(2);
+
+        Map<String, String> data = newmap(
+                entry("id", "133"),
+                entry("email", "etttt@example.com"),
+                entry("dates[0]", "2020-01-01"),
+                entry("count", "5")
+        );
+        BindObject bindObj = binder.bind(mapping1, data);
+        assertEquals(bindObj.get("id"), Long.valueOf(133));
+        assertSame(binder.bind(mapping1, new HashMap<>(data)), bindObj);
+        assertNotSame(new FormBinder(messages).bind(mapping1, data), bindObj);
+
+        Map<String, String> invalid = newmap(entry("id", "133"), entry("count", "15"));
+        assertEquals(binder.validate(mapping1, invalid).get(), Arrays.asList(entry("count", "'15' must be lower than 10 (include boundary: true)")));
+        assertEquals(binder.bind(mapping1, invalid).errors().get(), Arrays.asList(entry("count", "'15' must be lower than 10 (include boundary: true)")));
+        try {
+            ((List<Map.Entry<String, String>>) binder.validate(mapping1, invalid).get()).clear();
+            fail("expected UnsupportedOperationException");
+        } catch (UnsupportedOperationException e) {
+            // expected, since the errors are shared by cache hits
+        }
+
+        // cached data is copied, so a later change of the input won't hit it
+        data.put("count", "6");
+        assertEquals(binder.bind(mapping1, data).get("count"), 6);
+
+        // not deterministic, so not cached
+        assertNotSame(binder.bind(mapping, data), binder.bind(mapping, data));
+        Mapping<BindObject> mapping2 = mapping(
+                field("id", longv(deterministic((name, data1, messages1, options) -> Collections.emptyList()))));
+        assertSame(binder.bind(mapping2, data), binder.bind(mapping2, data));
+    }
+
+    @Test
+    public void testBind_WithResultCacheWeight() {
+        System.out.println(green(">> bind - with result cache, bounded by weight"));
+
+        Mapping<BindObject> mapping1 = mapping(field("name", text()), field("note", text()));
+        FormBinder binder = new FormBinder(messages).resultCache(10, 3000);
+
+        // heavier than the budget, so not cached
+        Map<String, String> big = newmap(entry("name", "n"), entry("note", String.join("", Collections.nCopies(1000, "x"))));
+        assertNotSame(binder.bind(mapping1, big), binder.bind(mapping1, big));
+
+        // the least recently used are evicted to keep the total weight under the budget
+        Map<String, String> data1 = newmap(entry("name", "a"), entry("note", String.join("", Collections.nCopies(200, "x"))));
+        Map<String, String> data2 = newmap(entry("name", "b"), entry("note", String.join("", Collections.nCopies(200, "x"))));
+        Map<String, String> data3 = newmap(entry("name", "c"), entry("note", String.join("", Collections.nCopies(200, "x"))));
+        BindObject bound1 = binder.bind(mapping1, data1);
+        BindObject bound2 = binder.bind(mapping1, data2);
+        assertSame(binder.bind(mapping1, data1), bound1);
+        binder.bind(mapping1, data3);
+        assertSame(binder.bind(mapping1, data1), bound1);
+        assertNotSame(binder.bind(mapping1, data2), bound2);
+    }
+
+    // revalidate test
+
+    @Test
+    public void testRevalidate() {
+        System.out.println(green(">> revalidate - w/ changed keys"));
+
+        List<String> checked = new ArrayList<>();
+        Constraint tracked = (name, data, messages, options) -> {
+            checked.add(name);
+            return Collections.emptyList();
+        };
+        Mapping<BindObject> mapping1 = mapping(
+                field("id", longv(tracked)),
+                field("address", mapping(
+                        field("city", text(required(), tracked)),
+                        field("zip", text(maxLength(5), tracked))
+                    )),
+                field("tags", list(text(tracked)))
+            ).verifying((label, vObj, messages1) -> {
+                checked.add("extra");
+                return vObj.<BindObject>get("address").get("city").equals(vObj.get("id").toString())
+                        ? Arrays.asList("city can't be id") : Collections.emptyList();
+            });
+        FormBinder binder = new FormBinder(messages);
+
+        Map<String, String> data = new HashMap<>(newmap(
+                entry("id", "133"),
+                entry("address.city", "Hangzhou"),
+                entry("address.zip", "310000"),
+                entry("tags[0]", "t1")
+        ));
+        ValidationResult result = binder.revalidate(mapping1, null, data, null);
+        assertEquals(result.errors(), binder.validate(mapping1, data));
+        assertEquals(checked, Arrays.asList("id", "address.city", "tags[0]", "id", "address.city", "tags[0]"));
+
+        checked.clear();
+        data.put("address.zip", "31000");
+        result = binder.revalidate(mapping1, result, data, Arrays.asList("address.zip"));
+        assertEquals(checked, Arrays.asList("address.zip", "extra"));
+        assertEquals(result.errors(), Optional.empty());
+
+        checked.clear();
+        data.put("address.city", "133");
+        result = binder.revalidate(mapping1, result, data, Arrays.asList("address.city"));
+        assertEquals(checked, Arrays.asList("address.city", "extra"));
+        assertEquals(result.errors(), binder.validate(mapping1, data));
+        assertEquals(result.errors().get(), Arrays.asList(entry("", "city can't be id")));
+
+        checked.clear();
+        data.put("tags[1]", "t2");
+        data.remove("address.city");
+        result = binder.revalidate(mapping1, result, data, Arrays.asList("tags[1]", "address.city"));
+        assertEquals(checked, Arrays.asList("tags[0]", "tags[1]"));
+        assertEquals(result.errors(), binder.validate(mapping1, data));
+    }
+
+    @Test
+    public void testRevalidate_ListOfGroups() {
+        System.out.println(green(">> revalidate - list of groups"));
+
+        List<String> checked = new ArrayList<>();
+        Constraint tracked = (name, data, messages, options) -> {
+            checked.add(name);
+            return Collections.emptyList();
+        };
+        Mapping<BindObject> mapping1 = mapping(
+                field("orders", list(mapping(
+                        field("no", text(required(), tracked)),
+                        field("qty", intv(tracked).verifying(max(10)))
+                    )))
+            );
+        FormBinder binder = new FormBinder(messages);
+
+        Map<String, String> data = new HashMap<>();
+        for (int i = 0; i < 4; i++) {
+            data.put("orders[" + i + "].no", "n" + i);
+            data.put("orders[" + i + "].qty", "" + i);
+        }
+        ValidationResult result = binder.revalidate(mapping1, null, data, null);
+        assertEquals(result.errors(), Optional.empty());
+
+        // only the changed element is re-validated
+        checked.clear();
+        data.put("orders[3].qty", "30");
+        result = binder.revalidate(mapping1, result, data, Arrays.asList("orders[3].qty"));
+        assertEquals(checked, Arrays.asList("orders[3].qty"));
+        assertEquals(result.errors(), binder.validate(mapping1, data));
+
+        // errors of unchanged elements are carried forward through many results
+        for (int round = 0; round < 20; round++) {
+            checked.clear();
+            data.put("orders[1].no", round % 2 == 0 ? "" : "n1");
+            result = binder.revalidate(mapping1, result, data, Arrays.asList("orders[1].no"));
+            assertEquals(checked, round % 2 == 0 ? Collections.emptyList() : Arrays.asList("orders[1].no"));
+            assertEquals(result.errors(), binder.validate(mapping1, data));
+        }
+
+        // a removed element's errors are dropped
+        data.remove("orders[3].no");
+        data.remove("orders[3].qty");
+        result = binder.revalidate(mapping1, result, data, Arrays.asList("orders[3].no", "orders[3].qty"));
+        assertEquals(result.errors(), binder.validate(mapping1, data));
+    }
+
+    // validate at test
+
+    @Test
+    public void testValidateAt() {
+        System.out.println(green(">> validate at - path"));
+
+        List<String> checked = new ArrayList<>();
+        Constraint tracked = (name, data, messages, options) -> {
+            checked.add(name);
+            return Collections.emptyList();
+        };
+        Mapping<BindObject> mapping1 = mapping(
+                field("name", text(tracked)),
+                field("orders", list(mapping(
+                        field("no", text(tracked)),
+                        field("lines", list(mapping(
+                                field("qty", text(tracked, maxLength(2), pattern("\\d+"))),
+                                field("props", map(text(tracked)))
+                            ))),
+                        field("note", optional(mapping(field("text", text(tracked)))))
+                    )))
+            ).options(o -> o.eagerCheck(true));
+        FormBinder binder = new FormBinder(messages);
+
+        Map<String, String> data = newmap(
+                entry("name", "t"),
+                entry("orders[3].no", "1"),
+                entry("orders[3].lines[7].qty", "xxx"),
+                entry("orders[3].lines[7].props.a", "1"),
+                entry("orders[3].note.text", "1")
+        );
+        // options (eager check) inherited from root
+        assertEquals(binder.validateAt(mapping1, "orders[3].lines[7].qty", data).get(), Arrays.asList(
+                entry("orders[3].lines[7].qty", "'xxx' must be shorter than 2 characters (include boundary: true)"),
+                entry("orders[3].lines[7].qty", "'xxx' must be '\\d+'")));
+        assertEquals(checked, Arrays.asList("orders[3].lines[7].qty"));
+
+        checked.clear();
+        assertEquals(binder.validateAt(mapping1, "orders[3].lines[7].props.a", data), Optional.empty());
+        assertEquals(binder.validateAt(mapping1, "orders[3].note.text", data), Optional.empty());
+        assertEquals(checked, Arrays.asList("orders[3].lines[7].props.a", "orders[3].note.text"));
+        // index is built once, and held by the (unwrapped) root group
+        assertSame(Framework.indexOf(mapping1), Framework.indexOf(mapping1));
+        assertSame(Framework.indexOf(mapping1.map(o -> o)), Framework.indexOf(mapping1));
+
+        for (String path : Arrays.asList("orders[3].lines.qty", "orders[x]", "name.x", "orders[3].lines[7].no")) {
+            try {
+                binder.validateAt(mapping1, path, data);
+                fail("expected IllegalArgumentException: " + path);
+            } catch (IllegalArgumentException e) {
+                // expected
+            }
+        }
+    }
+
+    // bind patch test
+
+    @Test
+    public void testBindPatch() {
+        System.out.println(green(">> bind patch - merge into bind object/bean"));
+
+        List<String> checked = new ArrayList<>();
+        Constraint tracked = (name, data, messages, options) -> {
+            checked.add(name);
+            return Collections.emptyList();
+        };
+        Mapping<BindObject> mapping1 = mapping(
+                field("id", longv(required(), tracked)),
+                field("data", mapping(
+                        field("email", text(required(), email(), tracked)),
+                        field("price", floatv(required())),
+                        field("count", intv(required()))
+                    ).verifying((label, vObj, messages1) -> {
+                        float price = vObj.get("price");
+                        int count = vObj.get("count");
+                        return price * count > 1000 ? Arrays.asList("total cost too much!") : Collections.emptyList();
+                    }))
+            );
+        FormBinder binder = new FormBinder(messages);
+
+        BindObject existing = binder.bind(mapping1, newmap(
+                entry("id", "133"),
+                entry("data.email", "etttt@example.com"),
+                entry("data.price", "137.5"),
+                entry("data.count", "5")
+        ));
+        checked.clear();
+
+        BindObject patched = binder.bindPatch(mapping1, newmap(entry("data.count", "6")), existing);
+        assertEquals(patched.errors().isPresent(), false);
+        assertEquals(patched.get("id"), Long.valueOf(133));
+        assertEquals(patched.obj("data").get("email"), "etttt@example.com");
+        assertEquals(patched.obj("data").get("count"), Integer.valueOf(6));
+        assertEquals(existing.obj("data").get("count"), Integer.valueOf(5));
+        assertEquals(checked, Collections.emptyList());
+
+        // extra constraints checked on the merged value
+        assertEquals(binder.bindPatch(mapping1, newmap(entry("data.count", "8")), existing).errors().get(),
+                Arrays.asList(entry("data", "total cost too much!")));
+        assertEquals(binder.bindPatch(mapping1, newmap(entry("data.email", "")), existing).errors().get(),
+                Arrays.asList(entry("data.email", "'email' is required")));
+
+        // merge into bean, in place
+        TransformTest.Bean2 bean = new TransformTest.Bean2(1, new TransformTest.Bean1("a@b.com", 10f, 2));
+        TransformTest.Bean1 data = bean.getData();
+        patched = binder.bindPatch(mapping1, newmap(entry("id", "5"), entry("data.price", "20")), bean);
+        assertSame(patched.get(), bean);
+        assertSame(bean.getData(), data);
+        assertEquals(bean.getId(), 5L);
+        assertEquals(data.getPrice(), 20f);
+        assertEquals(data.getEmail(), "a@b.com");
+        assertEquals(checked, Arrays.asList("id"));
+    }
+
+    @Test
+    public void testBindPatch_Wrapped() {
+        System.out.println(green(">> bind patch - wrapped groups and lists"));
+
+        List<String> converted = new ArrayList<>();
+        Mapping<BindObject> mapping1 = mapping(
+                field("id", longv(required())),
+                field("data", mapping(
+                        field("email", text(required(), email())),
+                        field("price", floatv(required())),
+                        field("count", intv(required()).map(c -> {
+                            converted.add("count");
+                            return c;
+                        }))
+                    ).map(vObj -> new TransformTest.Bean1(vObj.get("email"), vObj.get("price"), vObj.get("count")))
+                    .verifying((label, bean, messages1) ->
+                        bean.getCount() > 10 ? Arrays.asList("too many!") : Collections.emptyList())),
+                field("tags", list(text(required())))
+            ).verifying((label, vObj, messages1) -> Collections.emptyList());
+        FormBinder binder = new FormBinder(messages);
+
+        BindObject existing = binder.bind(mapping1, newmap(
+                entry("id", "133"),
+                entry("data.email", "etttt@example.com"),
+                entry("data.price", "137.5"),
+                entry("data.count", "5"),
+                entry("tags[0]", "a"),
+                entry("tags[1]", "b")
+        ));
+        converted.clear();
+
+        // a group wrapped by `map(..)` is merged field by field, and merged once
+        BindObject patched = binder.bindPatch(mapping1, newmap(entry("data.count", "6")), existing);
+        assertEquals(patched.errors().isPresent(), false);
+        assertEquals(patched.<TransformTest.Bean1>get("data").getEmail(), "etttt@example.com");
+        assertEquals(patched.<TransformTest.Bean1>get("data").getCount(), 6);
+        assertEquals(converted, Arrays.asList("count"));
+        // and its extra constraints are checked on the merged value
+        assertEquals(binder.bindPatch(mapping1, newmap(entry("data.count", "11")), existing).errors().get(),
+                Arrays.asList(entry("data", "too many!")));
+
+        // supplied elements of a list are merged into the existing one by index
+        patched = binder.bindPatch(mapping1, newmap(entry("tags[1]", "c")), existing);
+        assertEquals(patched.get("tags"), Arrays.asList("a", "c"));
+        assertEquals(existing.get("tags"), Arrays.asList("a", "b"));
+        assertEquals(binder.bindPatch(mapping1, newmap(entry("tags[2]", "d")), existing).get("tags"), Arrays.asList("a", "b", "d"));
+        assertEquals(binder.bindPatch(mapping1, newmap(entry("tags[0]", "")), existing).errors().get(),
+                Arrays.asList(entry("tags[0]", "'tags[0]' is required")));
+    }
+
+    @Test
+    public void testBindPatch_ListAndMapElements() {
+        System.out.println(green(">> bind patch - merge list/map elements"));
+
+        List<String> checked = new ArrayList<>();
+        Constraint tracked = (name, data, messages, options) -> {
+            checked.add(name);
+            return Collections.emptyList();
+        };
+        Mapping<BindObject> mapping1 = mapping(
+                field("orders", list(mapping(
+                        field("no", text(required(), tracked)),
+                        field("qty", intv(required(), tracked))
+                    )).verifying((label, orders, messages1) ->
+                        orders.size() > 3 ? Arrays.asList("too many orders!") : Collections.emptyList())),
+                field("props", map(text(required())))
+            );
+        FormBinder binder = new FormBinder(messages);
+
+        BindObject existing = binder.bind(mapping1, newmap(
+                entry("orders[0].no", "n0"),
+                entry("orders[0].qty", "1"),
+                entry("orders[1].no", "n1"),
+                entry("orders[1].qty", "2"),
+                entry("props.a", "x"),
+                entry("props.b", "y")
+        ));
+        checked.clear();
+
+        // an element of groups is merged field by field, and only its supplied fields are validated
+        BindObject patched = binder.bindPatch(mapping1, newmap(entry("orders[1].qty", "5")), existing);
+        assertEquals(patched.errors().isPresent(), false);
+        List<BindObject> orders = patched.get("orders");
+        assertEquals(orders.size(), 2);
+        assertEquals(orders.get(0).get("no"), "n0");
+        assertEquals(orders.get(1).get("no"), "n1");
+        assertEquals(orders.get(1).get("qty"), Integer.valueOf(5));
+        assertEquals(checked, Arrays.asList("orders[1].qty"));
+
+        // extra constraints of the list are checked on the merged value
+        assertEquals(binder.bindPatch(mapping1, newmap(entry("orders[2].no", "n2"), entry("orders[2].qty", "1"),
+                        entry("orders[3].no", "n3"), entry("orders[3].qty", "1")), existing).errors().get(),
+                Arrays.asList(entry("orders", "too many orders!")));
+
+        // supplied elements of a map are merged by key
+        patched = binder.bindPatch(mapping1, newmap(entry("props.b", "z"), entry("props.c", "w")), existing);
+        assertEquals(patched.get("props"), newmap(entry("a", "x"), entry("b", "z"), entry("c", "w")));
+        assertEquals(binder.bindPatch(mapping1, newmap(entry("props.b", "")), existing).errors(),
+                binder.validate(mapping1, newmap(entry("props.b", ""))));
+    }
+
+    @Test
+    public void testWhen_SeenThrough() {
+        System.out.println(green(">> when - seen through by validateAt/bindPatch/revalidate"));
+
+        List<String> checked = new ArrayList<>();
+        Constraint tracked = (name, data, messages, options) -> {
+            checked.add(name);
+            return Collections.emptyList();
+        };
+        Mapping<BindObject> order = mapping(
+                field("delivery", bool()),
+                field("shipping", when("delivery", "true"::equals, mapping(
+                        field("address", text(required(), tracked)),
+                        field("zip", text(required(), tracked))
+                    )))
+            );
+        FormBinder binder = new FormBinder(messages);
+
+        // validateAt resolves through `when`, and checks its condition
+        Map<String, String> data = newmap(entry("delivery", "true"), entry("shipping.address", ""));
+        assertEquals(binder.validateAt(order, "shipping.address", data).get(),
+                Arrays.asList(entry("shipping.address", "'address' is required")));
+        assertEquals(binder.validateAt(order, "shipping.address", newmap(entry("delivery", "false"))), Optional.empty());
+
+        // bindPatch checks the condition on the merged data, and merges field by field
+        BindObject existing = binder.bind(order, newmap(
+                entry("delivery", "true"), entry("shipping.address", "a1"), entry("shipping.zip", "z1")));
+        BindObject patched = binder.bindPatch(order, newmap(entry("shipping.address", "a2")), existing);
+        assertEquals(patched.errors().isPresent(), false);
+        assertEquals(patched.obj("shipping").get("address"), "a2");
+        assertEquals(patched.obj("shipping").get("zip"), "z1");
+        // skipped by the condition, so kept unchanged
+        BindObject noDelivery = new BindObject(newmap(entry("delivery", false), entry("shipping", existing.obj("shipping"))));
+        patched = binder.bindPatch(order, newmap(entry("shipping.address", "")), noDelivery);
+        assertEquals(patched.errors().isPresent(), false);
+        assertSame(patched.obj("shipping"), existing.obj("shipping"));
+
+        // revalidate re-checks the condition, and reuses the unchanged fields under it
+        Map<String, String> data2 = new HashMap<>(newmap(
+                entry("delivery", "false"), entry("shipping.address", "a1"), entry("shipping.zip", "z1")));
+        ValidationResult result = binder.revalidate(order, null, data2, null);
+        checked.clear();
+        data2.put("delivery", "true");
+        result = binder.revalidate(order, result, data2, Arrays.asList("delivery"));
+        assertEquals(checked, Arrays.asList("shipping.address", "shipping.zip"));
+        checked.clear();
+        data2.put("shipping.zip", "z2");
+        binder.revalidate(order, result, data2, Arrays.asList("shipping.zip"));
+        assertEquals(checked, Arrays.asList("shipping.zip"));
+    }
+
 }
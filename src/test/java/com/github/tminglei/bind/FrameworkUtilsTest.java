@@ -9,6 +9,9 @@ import java.io.IOException;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.Map;
+import java.util.Random;
+import java.util.ResourceBundle;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import com.github.tminglei.bind.spi.*;
 
@@ -136,4 +139,95 @@ public class FrameworkUtilsTest {
         );
         assertEquals(FrameworkUtils.json2map("t", json), expected2);
     }
+
+    @Test
+    public void testJson2map_Text() throws IOException {
+        System.out.println(green(">> json2map - json text"));
+
+        String jsonText = "{\"data\": {\"email\":null, \"price\":337.5, \"count\":5, \"ok\": true, \"e\": {}},"
+                + " \"touched\": [\"email\", \"pr\\u0069ce\\n\", [], [-1, {\"x\": \"\\\"y\\\"\"}]]}";
+        JsonNode json = new ObjectMapper().readTree(jsonText);
+
+        assertEquals(FrameworkUtils.json2map("", jsonText), FrameworkUtils.json2map("", json));
+        assertEquals(FrameworkUtils.json2map("t", jsonText), FrameworkUtils.json2map("t", json));
+        assertEquals(FrameworkUtils.json2map("t", jsonText).get("t.touched[3][1].x"), "\"y\"");
+        assertEquals(FrameworkUtils.json2map("t", jsonText).get("t.touched[1]"), "price\n");
+        assertEquals(FrameworkUtils.json2map("t", " \"abc\" "), newmap(entry("t", "abc")));
+    }
+
+    @Test
+    public void testJson2map_IllegalText() {
+        System.out.println(green(">> json2map - illegal json text"));
+
+        String[] illegals = { "", "{", "{\"a\" 1}", "{\"a\": 1,}", "[1 2]", "[01]", "[-]", "{\"a\": tru}",
+                "\"abc", "[1] x", "{a: 1}", "[\"\\x\"]" };
+        for (String illegal : illegals) {
+            try {
+                FrameworkUtils.json2map("", illegal);
+                fail("should fail for: " + illegal);
+            } catch (IllegalArgumentException e) {
+                // expected
+            }
+        }
+
+        // depth limit
+        assertEquals(FrameworkUtils.json2map("", "[[[1]]]", 3), newmap(entry("[0][0][0]", "1")));
+        try {
+            FrameworkUtils.json2map("", "[[[[1]]]]", 3);
+            fail("should exceed max depth");
+        } catch (IllegalArgumentException e) {
+            assertEquals(e.getMessage().contains("max depth"), true);
+        }
+    }
+
+    @Test
+    public void testAnyPassed() {
+        System.out.println(green(">> any passed - lazy errors and promoted branch"));
+
+        ResourceBundle bundle = ResourceBundle.getBundle("bind-messages");
+        AtomicInteger lookups = new AtomicInteger();
+        Messages messages = (key) -> { lookups.incrementAndGet(); return bundle.getString(key); };
+        Options options = new Options()._label("")._inputMode(InputMode.SINGLE);
+
+        AtomicInteger longChecks = new AtomicInteger();
+        Constraint longv = parsing(s -> { longChecks.incrementAndGet(); return Long.parseLong(s); }, "'%s' not a long", false);
+        Constraint intv = parsing(Integer::parseInt, "error.number", true);
+        Constraint anyPassed = anyPassed(true, longv, Constraints.maxLength(3));
+
+        assertEquals(anyPassed.apply("", newmap(entry("", "abc")), messages, options), Collections.emptyList());
+        assertEquals(lookups.get(), 0);
+        assertEquals(anyPassed.apply("", newmap(entry("", "abcd")), messages, options),
+                Arrays.asList(entry("", "'' must satisfy any of following: ['abcd' not a long, 'abcd' must be shorter than 3 characters (include boundary: true)]")));
+
+        // 2nd branch passed more often, so it's promoted, and checked first
+        longChecks.set(0);
+        for (int i = 0; i < 10; i++) anyPassed.apply("", newmap(entry("", "ab")), messages, options);
+        assertTrue(longChecks.get() < 10);
+        assertEquals(anyPassed.apply("", newmap(entry("", "12345")), messages, options), Collections.emptyList());
+        assertEquals(anyPassed(intv).apply("", newmap(entry("", "x")), messages, options).size(), 1);
+    }
+
+    @Test
+    public void testIsEmail() {
+        System.out.println(green(">> is email - same as PATTERN_EMAIL"));
+
+        String[] corpus = { "", "@", "a@", "@b.cc", "a@b", "a@b.c", "a@b.cc", "a@b.cdefgh", "a@b.cdefghi",
+                "a.b@c.de", ".a@c.de", "a.@c.de", "a..b@c.de", "a@.b.cc", "a@b..cc", "a@b.cc.", "a@b-.c-d.ef",
+                "a@-.cc", "a@b.c1", "a@1.cc", "a@b_c.cc", "a_b@c.cc", "!#$%&'*+/=?`{|}~^-@a.bc", "a b@c.de",
+                "a@b@c.de", "ä@b.cc", "a@ä.cc", "a@b.cä", "a@b.cc\n",
+                "\na@b.cc", "a(b)@c.de", "a@b.CC", "A.B.C@D-1.E2.Fgh", "a@b.c-d" };
+        for (String str : corpus) {
+            assertEquals(isEmail(str), str.matches(PATTERN_EMAIL), str);
+        }
+
+        // random strings, built from chars which are significant to the pattern
+        String chars = "a.@-1_Z!ä ";
+        Random random = new Random(7);
+        for (int i = 0; i < 100000; i++) {
+            StringBuilder str = new StringBuilder();
+            for (int n = random.nextInt(12); n > 0; n--) str.append(chars.charAt(random.nextInt(chars.length())));
+            if (random.nextBoolean()) str.append(random.nextBoolean() ? ".cc" : "@b.cc");
+            assertEquals(isEmail(str.toString()), str.toString().matches(PATTERN_EMAIL), str.toString());
+        }
+    }
 }
@@ -5,6 +5,10 @@ import org.testng.annotations.Test;
 
 import java.util.*;
 
+import com.github.tminglei.bind.spi.Constraint;
+import com.github.tminglei.bind.spi.InputMode;
+import com.github.tminglei.bind.spi.MappingMeta;
+
 import static org.testng.Assert.*;
 import static com.github.tminglei.bind.Simple.*;
 import static com.github.tminglei.bind.FrameworkUtils.*;
@@ -132,6 +136,33 @@ public class GeneralMappingsTest {
         assertEquals(optional.convert("number", data2), Optional.of(101));
     }
 
+    @Test
+    public void testOptional_WithConstraints() {
+        System.out.println(green(">> optional - with constraints"));
+
+        Mapping<Optional<String>> optional = Mappings.optional(Mappings.text(), Constraints.maxLength(3));
+        Mapping<Optional<String>> labeled = optional.label("title");
+
+        Map<String, String> data = newmap(entry("a.text", "haha"));
+        for (int i = 0; i < 2; i++) {
+            assertEquals(optional.validate("a.text", data, messages, Options.EMPTY),
+                    Arrays.asList(entry("a.text", "'haha' must be shorter than 3 characters (include boundary: true)")));
+            assertEquals(labeled.validate("a.text", data, messages, Options.EMPTY),
+                    Arrays.asList(entry("a.text", "'haha' must be shorter than 3 characters (include boundary: true)")));
+        }
+
+        // shares the same base mapping, but w/ different labels
+        Mapping<Optional<String>> optional1 = Mappings.optional(Mappings.text(),
+                (name, data1, messages1, options) -> Arrays.asList(entry(name, getLabel(name, messages1, options))));
+        Mapping<Optional<String>> labeled1 = optional1.label("title");
+        for (int i = 0; i < 2; i++) {
+            assertEquals(optional1.validate("a.text", data, messages, Options.EMPTY),
+                    Arrays.asList(entry("a.text", "text")));
+            assertEquals(labeled1.validate("a.text", data, messages, Options.EMPTY),
+                    Arrays.asList(entry("a.text", "title")));
+        }
+    }
+
     @Test
     public void testOptional_Compound() {
         System.out.println(green(">> optional - compound"));
@@ -199,6 +230,124 @@ public class GeneralMappingsTest {
         assertEquals(list.convert("list", data2), Collections.EMPTY_LIST);
     }
 
+    @Test
+    public void testList_DistinctValues() {
+        System.out.println(green(">> list - validate/convert distinct values once"));
+
+        int[] checks = new int[1];
+        Constraint country = mkSimpleConstraint((label, vString, messages) -> {
+            checks[0]++;
+            return vString.length() == 2 ? null : "'" + label + "' bad country";
+        }, null);
+
+        Map<String, String> data = new HashMap<>();
+        for (int i = 0; i < 100; i++) data.put("list[" + i + "]", i % 10 == 9 ? "xxx" : (i % 2 == 0 ? "us" : "cn"));
+
+        Mapping<List<String>> list = Mappings.list(Mappings.text(country).label("country"));
+        List<Map.Entry<String, String>> errors = list.validate("list", data, messages, Options.EMPTY);
+        assertEquals(checks[0], 3);
+        assertEquals(errors.size(), 10);
+        assertEquals(errors.get(1), entry("list[19]", "'country' bad country"));
+        assertEquals(list.convert("list", data).get(98), "us");
+
+        // w/o fixed label, failed elements are validated one by one
+        checks[0] = 0;
+        errors = Mappings.list(Mappings.text(country)).validate("list", data, messages, Options.EMPTY);
+        assertEquals(checks[0], 12);
+        assertEquals(errors.get(1), entry("list[19]", "'list[19]' bad country"));
+
+        // an order sensitive constraint is still value scoped
+        checks[0] = 0;
+        Mappings.list(Mappings.text(Constraints.orderSensitive(country)).label("country"))
+                .validate("list", data, messages, Options.EMPTY);
+        assertEquals(checks[0], 3);
+
+        // mutable results aren't shared between elements
+        Mapping<StringBuilder> builder = new FieldMapping<>(InputMode.SINGLE,
+                mkSimpleConverter(StringBuilder::new), new MappingMeta("builder", StringBuilder.class));
+        List<StringBuilder> builders = Mappings.list(builder).convert("list", data);
+        assertEquals(builders.get(0).toString(), builders.get(2).toString());
+        assertNotSame(builders.get(0), builders.get(2));
+    }
+
+    // primitive array test
+
+    @Test
+    public void testIntArray() {
+        System.out.println(green(">> int array"));
+
+        Mapping<int[]> array = attach(Processors.omit(",")).to(Mappings.intArray());
+
+        Map<String, String> data1 = newmap(
+                entry("array[2]", "1,001"),
+                entry("array[0]", "100"),
+                entry("array[1]", "")
+        );
+        assertEquals(array.validate("array", data1, messages, Options.EMPTY),
+                Collections.EMPTY_LIST);
+        assertEquals(Arrays.equals(array.convert("array", data1), new int[]{ 100, 0, 1001 }), true);
+
+        Map<String, String> data2 = newmap(entry("array[0]", "t1"), entry("array[1]", "3"));
+        assertEquals(array.validate("array", data2, messages, Options.EMPTY),
+                Arrays.asList(entry("array[0]", "'t1' must be a number")));
+
+        Map<String, String> data3 = newmap();
+        assertEquals(array.validate("array", data3, messages, Options.EMPTY),
+                Collections.EMPTY_LIST);
+        assertEquals(array.convert("array", data3).length, 0);
+    }
+
+    @Test
+    public void testLongArray_WithBase() {
+        System.out.println(green(">> long array - with base"));
+
+        Mapping<long[]> array = Mappings.longArray(attach(Processors.omitLeft("#")).to(Mappings.longv())
+                .verifying(Constraints.max(100L)));
+
+        Map<String, String> data1 = newmap(entry("array[0]", "#12"), entry("array[1]", "#3"));
+        assertEquals(array.validate("array", data1, messages, Options.EMPTY),
+                Collections.EMPTY_LIST);
+        assertEquals(Arrays.equals(array.convert("array", data1), new long[]{ 12, 3 }), true);
+
+        Map<String, String> data2 = newmap(entry("array[0]", "#12"), entry("array[1]", "#300"));
+        assertEquals(array.validate("array", data2, messages, Options.EMPTY),
+                Arrays.asList(entry("array[1]", "'300' must be lower than 100 (include boundary: true)")));
+    }
+
+    @Test
+    public void testPrimitiveArray_EmptyElements() {
+        System.out.println(green(">> primitive array - empty elements"));
+
+        Map<String, String> data = newmap(entry("array[0]", "7"), entry("array[1]", ""));
+        assertEquals(Arrays.equals(Mappings.intArray().convert("array", data), new int[]{ 7, 0 }), true);
+        assertEquals(Arrays.equals(Mappings.longArray().convert("array", data), new long[]{ 7, 0 }), true);
+        assertEquals(Arrays.equals(Mappings.doubleArray().convert("array", data), new double[]{ 7d, 0d }), true);
+        assertEquals(Mappings.list(Mappings.intv()).convert("array", data), Arrays.asList(7, 0));
+        // a null from a custom base is converted to 0 too, while a list keeps it
+        Mapping<Integer> nullable = Mappings.intv().map(v -> v == 0 ? null : v);
+        assertEquals(Arrays.equals(Mappings.intArray(nullable).convert("array", data), new int[]{ 7, 0 }), true);
+        assertEquals(Mappings.list(nullable).convert("array", data), Arrays.asList(7, null));
+
+        Mapping<int[]> required = Mappings.intArray(Mappings.intv(Constraints.required()));
+        assertEquals(required.validate("array", data, messages, Options.EMPTY),
+                Arrays.asList(entry("array[1]", "'array[1]' is required")));
+    }
+
+    @Test
+    public void testDoubleArray() {
+        System.out.println(green(">> double array"));
+
+        Mapping<double[]> array = Mappings.doubleArray(Constraints.required());
+
+        Map<String, String> data1 = newmap(entry("a.array[0]", "1.5"), entry("a.array[1]", "-3"));
+        assertEquals(array.validate("a.array", data1, messages, Options.EMPTY),
+                Collections.EMPTY_LIST);
+        assertEquals(Arrays.equals(array.convert("a.array", data1), new double[]{ 1.5d, -3d }), true);
+
+        assertEquals(array.validate("a.array", newmap(), messages, Options.EMPTY),
+                Arrays.asList(entry("a.array", "'array' is required")));
+    }
+
     // map test
 
     @Test
@@ -270,4 +419,92 @@ public class GeneralMappingsTest {
         assertEquals(map.convert("map", data2), Collections.EMPTY_MAP);
     }
 
+    // when test
+
+    @Test
+    public void testWhen() {
+        System.out.println(green(">> when"));
+
+        int[] checks = new int[1];
+        Constraint tracked = (name, data, messages, options) -> {
+            checks[0]++;
+            return Collections.emptyList();
+        };
+        Mapping<BindObject> order = mapping(
+                field("delivery", Mappings.bool()),
+                field("shipping", Mappings.when("delivery", "true"::equals, mapping(
+                        field("address", Mappings.text(Constraints.required(), tracked))
+                    )))
+            );
+
+        Map<String, String> data1 = newmap(entry("order.delivery", "false"));
+        assertEquals(order.validate("order", data1, messages, Options.EMPTY), Collections.EMPTY_LIST);
+        assertEquals(order.convert("order", data1).get("shipping"), null);
+        assertEquals(checks[0], 0);
+
+        Map<String, String> data2 = newmap(entry("order.delivery", "true"));
+        assertEquals(order.validate("order", data2, messages, Options.EMPTY), Collections.EMPTY_LIST);
+        Map<String, String> data3 = newmap(entry("order.delivery", "true"), entry("order.shipping.address", ""));
+        assertEquals(order.validate("order", data3, messages, Options.EMPTY),
+                Arrays.asList(entry("order.shipping.address", "'address' is required")));
+
+        Map<String, String> data4 = newmap(entry("delivery", "true"), entry("shipping.address", "t1"));
+        assertEquals(order.validate("", data4, messages, Options.EMPTY), Collections.EMPTY_LIST);
+        assertEquals(order.convert("", data4).obj("shipping").get("address"), "t1");
+        assertEquals(checks[0], 1);
+    }
+
+    // union test
+
+    @Test
+    public void testUnion() {
+        System.out.println(green(">> union"));
+
+        Map<String, Mapping<BindObject>> variants = new LinkedHashMap<>();
+        variants.put("card", mapping(
+                field("type", Mappings.text().label("payment type")),
+                field("number", Mappings.text(Constraints.required()))
+            ));
+        variants.put("bank", mapping(
+                field("type", Mappings.text()),
+                field("iban", Mappings.text(Constraints.required())),
+                field("bic", Mappings.text())
+            ));
+        Mapping<BindObject> union = Mappings.union("type", variants);
+
+        Map<String, String> data1 = newmap(
+                entry("pay.type", "bank"),
+                entry("pay.iban", "DE89370400440532013000")
+        );
+        assertEquals(union.validate("pay", data1, messages, Options.EMPTY),
+                Collections.EMPTY_LIST);
+        assertEquals(union.convert("pay", data1).get("iban"), "DE89370400440532013000");
+        assertEquals(union.convert("pay", data1).get("number"), null);
+
+        Map<String, String> data2 = newmap(
+                entry("pay.type", "card"),
+                entry("pay.iban", "DE89370400440532013000")
+        );
+        assertEquals(union.validate("pay", data2, messages, Options.EMPTY),
+                Arrays.asList(entry("pay.number", "'number' is required")));
+
+        Map<String, String> data3 = newmap(
+                entry("pay.type", "cash"),
+                entry("pay.number", "123")
+        );
+        assertEquals(union.validate("pay", data3, messages, Options.EMPTY),
+                Arrays.asList(entry("pay.type", "'cash' must be one of [card, bank]")));
+        assertEquals(Arrays.asList(union.meta().baseMappings), new ArrayList<>(variants.values()));
+        assertEquals(union.convert("pay", data3), null);
+
+        Map<String, String> data4 = newmap(entry("pay.number", "123"));
+        assertEquals(union.validate("pay", data4, messages, Options.EMPTY),
+                Arrays.asList(entry("pay.type", "'payment type' is required")));
+
+        Map<String, String> data5 = newmap();
+        assertEquals(union.validate("pay", data5, messages, Options.EMPTY),
+                Collections.EMPTY_LIST);
+        assertEquals(union.convert("pay", data5), null);
+    }
+
 }
@@ -3,8 +3,10 @@ package com.github.tminglei.bind;
 import org.testng.annotations.BeforeClass;
 import org.testng.annotations.Test;
 
+import java.time.Duration;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.Map;
 import java.util.ResourceBundle;
 
@@ -226,4 +228,57 @@ public class GroupMappingsTest {
                 Arrays.asList(entry("email", "email is required")));
     }
 
+    @Test
+    public void testCrossField() {
+        System.out.println(green(">> cross field extra constraint"));
+
+        int[] converts = new int[1];
+        Mapping<BindObject> signup = mapping(
+                field("password", text(required())),
+                field("confirm", text()),
+                field("profile", text().map(s -> { converts[0]++; return s; }))
+            ).verifying(crossField((label, vObj, messages1) -> {
+                assertEquals(vObj.names(), new HashSet<>(Arrays.asList("password", "confirm")));
+                return vObj.get("password").equals(vObj.get("confirm")) ? Collections.emptyList()
+                        : Arrays.asList("passwords don't match");
+            }, "password", "confirm"));
+
+        Map<String, String> data = newmap(
+                entry("signup.password", "t123"),
+                entry("signup.confirm", "t124"),
+                entry("signup.profile", "{...}")
+        );
+        assertEquals(signup.validate("signup", data, messages, Options.EMPTY),
+                Arrays.asList(entry("signup", "passwords don't match")));
+        assertEquals(converts[0], 0);
+
+        data.put("signup.confirm", "t123");
+        assertEquals(signup.validate("signup", data, messages, Options.EMPTY), Collections.EMPTY_LIST);
+        assertEquals(converts[0], 0);
+        assertEquals(signup.convert("signup", data).get("profile"), "{...}");
+        assertEquals(converts[0], 1);
+
+        // declared fields are seen through memoized(..), which doesn't cache bind objects (w/o value equality)
+        converts[0] = 0;
+        ConstraintCache cache = new ConstraintCache(10, Duration.ofMinutes(1));
+        Mapping<BindObject> memoized = signup.options(o -> o._extraConstraints(Collections.emptyList()))
+                .verifying(memoized(crossField((label, vObj, messages1) ->
+                        vObj.names().size() == 1 ? Collections.emptyList() : Arrays.asList("not only confirm"),
+                    "confirm"), cache));
+        assertEquals(memoized.validate("signup", data, messages, Options.EMPTY), Collections.EMPTY_LIST);
+        assertEquals(memoized.validate("signup", data, messages, Options.EMPTY), Collections.EMPTY_LIST);
+        assertEquals(converts[0], 0);
+        assertEquals(cache.size(), 0);
+        assertEquals(cache.missCount(), 0L);
+
+        // unknown declared fields are rejected, when the constraint is attached
+        try {
+            mapping(field("password", text())).verifying(
+                    crossField((label, vObj, messages1) -> Collections.emptyList(), "pasword"));
+            fail("expected IllegalArgumentException");
+        } catch (IllegalArgumentException e) {
+            assertEquals(e.getMessage(), "Unknown field 'pasword' declared by a cross field constraint, not in [password]");
+        }
+    }
+
 }
@@ -0,0 +1,103 @@
+package com.github.tminglei.bind;
+
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.util.*;
+import java.util.function.Predicate;
+
+import com.github.tminglei.bind.spi.InputMode;
+
+import static org.testng.Assert.*;
+import static com.github.tminglei.bind.Utils.*;
+
+public class LinearPatternTest {
+
+    @BeforeClass
+    public void start() {
+        System.out.println(cyan("test linear pattern"));
+    }
+
+    @Test
+    public void testSameAsJavaRegex() {
+        System.out.println(green(">> same as java regex"));
+
+        List<String> patterns = Arrays.asList(FrameworkUtils.PATTERN_EMAIL,
+                "^(\\d+)$", "a|b|", "(a|ab)(c|bcd)(d*)", "(?:a*)*b", "[^a-c]+x?", "a{2,3}b{2}c{0,}",
+                "\\w+@\\W\\s*\\S", ".*", "[.\\-\\]a]+", "(?<name>x+)y*?", "\\x41\\u0042\\0103\\t\\.",
+                "[a-z&&[^x]]", "(a)\\1", "(?i)abc", "a++b", "x^y", "\\bx");
+        List<String> inputs = Arrays.asList("", "a", "b", "ab", "abcd", "abbcd", "aab", "aabbc", "aaabbcc", "123",
+                "12a", "x", "xy", "xxxy", "dx", "a.-]", "ABC\t.", "abc", "ABC", "aaab", "xbc", "a\n", "\n",
+                "中文", "😀", "w@ x", "w@-\t!", "a@b.cc", "a.b@c-d.ef", "a..b@c.de", "a@b.c", "x@y.abcdefg",
+                "!#$%&'*+/=?`{|}~^-@a.bc");
+
+        for (String pattern : patterns) {
+            Predicate<String> matcher = LinearPattern.matcher(pattern, true);
+            for (String input : inputs) {
+                assertEquals(matcher.test(input), input.matches(pattern), pattern + " ~ " + input);
+            }
+        }
+    }
+
+    @Test
+    public void testRandomInputs() {
+        System.out.println(green(">> random inputs"));
+
+        List<String> patterns = Arrays.asList("(a|ab)*c?", "[ab]{1,3}(ba)+", "(a*b*)*c", "((a|b)c|d)*[^a]?");
+        Random random = new Random(42);
+        for (String pattern : patterns) {
+            LinearPattern linear = new LinearPattern(pattern);
+            for (int i = 0; i < 2000; i++) {
+                StringBuilder input = new StringBuilder();
+                for (int n = random.nextInt(8); n > 0; n--) input.append("abcde".charAt(random.nextInt(5)));
+                assertEquals(linear.matches(input), input.toString().matches(pattern), pattern + " ~ " + input);
+            }
+        }
+    }
+
+    @Test
+    public void testUnsupported() {
+        System.out.println(green(">> unsupported features"));
+
+        for (String pattern : Arrays.asList("(a)\\1", "(?=a)a", "(?i)a", "a++", "a*+", "a^", "(a$)b", "(^a)*",
+                "[a[b]]", "[a&&b]", "\\p{L}", "\\bx", "a{1001}")) {
+            try {
+                new LinearPattern(pattern);
+                fail("expected UnsupportedOperationException: " + pattern);
+            } catch (UnsupportedOperationException e) {
+                // expected
+            }
+        }
+    }
+
+    @Test
+    public void testLinearTime() {
+        System.out.println(green(">> linear time"));
+
+        // catastrophic backtracking for java regex
+        String pattern = "(a|aa)*b";
+        StringBuilder input = new StringBuilder();
+        for (int i = 0; i < 100000; i++) input.append('a');
+
+        LinearPattern linear = new LinearPattern(pattern);
+        long start = System.nanoTime();
+        assertFalse(linear.matches(input));
+        assertTrue(linear.matches(input.append('b')));
+        assertTrue(System.nanoTime() - start < 2000_000_000L);
+    }
+
+    @Test
+    public void testUsedByConstraints() {
+        System.out.println(green(">> used by constraints"));
+
+        Messages messages = (key) -> ResourceBundle.getBundle("bind-messages").getString(key);
+        Options options = new Options()._label("")._inputMode(InputMode.SINGLE);
+        Map<String, String> data = FrameworkUtils.newmap(FrameworkUtils.entry("", "a@b"));
+
+        assertEquals(Constraints.pattern("^\\d+$", null, true).apply("", data, messages, options),
+                Constraints.pattern("^\\d+$").apply("", data, messages, options));
+        // fall back to java regex
+        assertEquals(Constraints.patternNot("(a)@\\1", null, true).apply("", data, messages, options),
+                Constraints.patternNot("(a)@\\1").apply("", data, messages, options));
+    }
+}
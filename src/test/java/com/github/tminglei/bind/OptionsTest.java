@@ -0,0 +1,56 @@
+package com.github.tminglei.bind;
+
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import com.github.tminglei.bind.spi.*;
+
+import static org.testng.Assert.*;
+import static com.github.tminglei.bind.Utils.*;
+
+public class OptionsTest {
+
+    @BeforeClass
+    public void start() {
+        System.out.println(cyan("test options"));
+    }
+
+    @Test
+    public void testMerge() {
+        System.out.println(green(">> merge"));
+
+        TouchedChecker touched = (prefix, data) -> true;
+        Options parent = new Options(true, true, touched);
+        Options options = new Options()._label("t1");
+
+        Options merged = options.merge(parent);
+        assertEquals(merged.eagerCheck(), parent.eagerCheck());
+        assertEquals(merged.skipUntouched(), parent.skipUntouched());
+        assertSame(merged.touchedChecker(), touched);
+        assertEquals(merged._label().get(), "t1");
+        // original options aren't changed
+        assertEquals(options.eagerCheck().isPresent(), false);
+
+        Options options1 = new Options(false, null, null);
+        assertEquals(options1.merge(parent).eagerCheck().get(), false);
+        assertEquals(options1.merge(parent).skipUntouched().get(), true);
+    }
+
+    @Test
+    public void testMerge_Reused() {
+        System.out.println(green(">> merge - reused"));
+
+        Options parent = new Options(true, null, null);
+        Options options = new Options();
+
+        // nothing to inherit
+        assertSame(options.merge(Options.EMPTY), options);
+        Options options1 = new Options(false, false, (p, d) -> false);
+        assertSame(options1.merge(parent), options1);
+        // same parent, same result
+        Options merged = options.merge(parent);
+        assertSame(options.merge(parent), merged);
+        assertNotSame(options.merge(new Options(true, null, null)), merged);
+        assertEquals(options.merge(new Options(true, null, null)).eagerCheck().get(), true);
+    }
+}
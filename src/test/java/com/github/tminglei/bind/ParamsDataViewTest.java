@@ -0,0 +1,72 @@
+package com.github.tminglei.bind;
+
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.util.*;
+
+import static org.testng.Assert.*;
+import static com.github.tminglei.bind.Utils.*;
+import static com.github.tminglei.bind.Mappings.*;
+import static com.github.tminglei.bind.FrameworkUtils.*;
+
+public class ParamsDataViewTest {
+
+    @BeforeClass
+    public void start() {
+        System.out.println(cyan("test params data view"));
+    }
+
+    @Test
+    public void testSameAsData() {
+        System.out.println(green(">> same as data"));
+
+        Map<String, String[]> params = new HashMap<>();
+        params.put("name", new String[]{ "t1" });
+        params.put("tags", new String[]{ "a", "b", null });
+        params.put("ids[]", new String[]{ "1" });
+        params.put("empty", new String[0]);
+        params.put("none", null);
+        params.put("extra", new String[]{ "x" });
+
+        Map<String, String> view = Simple.dataView(params, entry("extra", "y"), entry("tags[1]", "bb"));
+        Map<String, String> data = Simple.data(params, entry("extra", "y"), entry("tags[1]", "bb"));
+
+        assertEquals(view, data);
+        assertEquals(data, view);
+        assertEquals(view.size(), data.size());
+        assertEquals(view.get("tags[1]"), "bb");
+        assertEquals(view.get("tags[2]"), null);
+        assertTrue(view.containsKey("tags[2]"));
+        assertEquals(view.get("ids[0]"), "1");
+        for (String key : Arrays.asList("tags", "tags[3]", "tags[01]", "tags[-1]", "ids", "ids[]", "name[0]", "empty", "none[0]")) {
+            assertFalse(view.containsKey(key));
+            assertEquals(view.get(key), null);
+        }
+        // size is computed from the value arrays, and agrees w/ the (lazy) iteration
+        int count = 0;
+        for (Iterator<Map.Entry<String, String>> it = view.entrySet().iterator(); it.hasNext(); it.next()) count++;
+        assertEquals(view.size(), count);
+
+        try {
+            view.put("name", "t2");
+            fail("expected UnsupportedOperationException");
+        } catch (UnsupportedOperationException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testBinding() {
+        System.out.println(green(">> used in binding"));
+
+        Map<String, String[]> params = new HashMap<>();
+        params.put("tags[]", new String[]{ "a", "b" });
+        params.put("ids", new String[]{ "1", "2", "t3" });
+        Map<String, String> view = Simple.dataView(params);
+
+        assertEquals(list(text()).convert("tags", view), Arrays.asList("a", "b"));
+        assertEquals(list(intv()).validate("ids", view, (key) -> "%s", Options.EMPTY),
+                Arrays.asList(entry("ids[2]", "t3")));
+    }
+}
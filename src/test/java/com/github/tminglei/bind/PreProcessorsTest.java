@@ -3,7 +3,9 @@ package com.github.tminglei.bind;
 import org.testng.annotations.BeforeClass;
 import org.testng.annotations.Test;
 
+import java.util.Arrays;
 import java.util.Map;
+import java.util.TreeMap;
 
 import com.github.tminglei.bind.spi.*;
 
@@ -48,6 +50,26 @@ public class PreProcessorsTest {
                 newmap(entry("a[1]", "eyuu")));
     }
 
+    @Test
+    public void testTrim_Scoped() {
+        System.out.println(green(">> trim - scoped"));
+
+        PreProcessor trim = Processors.trim();
+        Options single = Options.EMPTY._inputMode(InputMode.SINGLE);
+
+        // only the value of the field itself for single input
+        assertEquals(trim.apply("a", newmap(entry("a", " t "), entry("ab", " t ")), single),
+                newmap(entry("a", "t"), entry("ab", " t ")));
+        assertEquals(trim.apply("a", newmap(entry("ab", " t ")), single),
+                newmap(entry("ab", " t ")));
+
+        // range lookup for sorted data
+        Map<String, String> data = new TreeMap<>(newmap(
+                entry("a", " 1"), entry("b", " 2"), entry("b.c", " 3"), entry("b[0]", " 4"), entry("c", " 5")));
+        assertEquals(trim.apply("b", data, Options.EMPTY),
+                newmap(entry("a", " 1"), entry("b", "2"), entry("b.c", "3"), entry("b[0]", "4"), entry("c", " 5")));
+    }
+
     // omit test
 
     @Test
@@ -154,6 +176,18 @@ public class PreProcessorsTest {
                 newmap(entry("a[0]", " a teee 86y"), entry("a[1]", " a teee 86")));
     }
 
+    @Test
+    public void testOmitRedundant_MultiChars() {
+        System.out.println(green(">> omit redundant - multiple chars"));
+
+        PreProcessor omitRedundant = Processors.omitRedundant("-_");
+
+        assertEquals(omitRedundant.apply("a", newmap(entry("a", "a-b__c_-d-_e")), Options.EMPTY),
+                newmap(entry("a", "a-_b-_c-_d-_e")));
+        assertEquals(omitRedundant.apply("a", newmap(entry("a", "a-_b")), Options.EMPTY),
+                newmap(entry("a", "a-_b")));
+    }
+
     // omit-matched test
 
     @Test
@@ -287,6 +321,38 @@ public class PreProcessorsTest {
                 expected);
     }
 
+    // fused pre-processors test
+
+    @Test
+    public void testFused() {
+        System.out.println(green(">> fused pre-processors"));
+
+        PreProcessor[] processors = {
+                Processors.trim(), Processors.omit(","), Processors.omitRedundant(" "),
+                Processors.replaceMatched("^(\\d+) (\\d+)$", "$1.$2")
+            };
+        Options options = Options.EMPTY._processors(Arrays.asList(processors));
+
+        assertEquals(options._processors().size(), 4);
+        assertEquals(options._pipeline().size(), 1);
+        assertEquals(options._pipeline().get(0).meta().desc,
+                "trim() >> omit(,) >> omitRedundant( ) >> replace(matched '^(\\d+) (\\d+)$' with '$1.$2')");
+
+        Map<String, String> data = newmap(entry("a", null), entry("b", " 1,234   56 "), entry("c", " x "));
+        Map<String, String> expected = newmap(entry("a", ""), entry("b", "1234.56"), entry("c", "x"));
+        Map<String, String> oneByOne = data;
+        for (PreProcessor processor : processors) {
+            oneByOne = processor.apply("", oneByOne, Options.EMPTY);
+        }
+        assertEquals(oneByOne, expected);
+        assertEquals(processDataRec("", data, options, options._pipeline()), expected);
+
+        // only adjacent value-local pre-processors are fused
+        Options options1 = Options.EMPTY._processors(Arrays.asList(Processors.trim(), Processors.omit(","),
+                Processors.expandJson(), Processors.trim()));
+        assertEquals(options1._pipeline().size(), 3);
+    }
+
     // expand-list-keys test
 
     @Test
@@ -434,4 +500,25 @@ public class PreProcessorsTest {
                 expected);
     }
 
+    @Test
+    public void testChangePrefix_SpecialChars() {
+        System.out.println(green(">> change prefix - special chars"));
+
+        PreProcessor changePrefix = Processors.changePrefix("j.*", "$d");
+
+        Map<String, String> data = newmap(
+                entry("aa", "wett"),
+                entry("j.*.id", "123"),
+                entry("jx.id", "456")
+        );
+        Map<String, String> expected = newmap(
+                entry("aa", "wett"),
+                entry("$d.id", "123"),
+                entry("jx.id", "456")
+        );
+
+        assertEquals(changePrefix.apply("", data, Options.EMPTY),
+                expected);
+    }
+
 }
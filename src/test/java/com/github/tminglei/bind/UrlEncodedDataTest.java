@@ -0,0 +1,100 @@
+package com.github.tminglei.bind;
+
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.net.URLDecoder;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+import static org.testng.Assert.*;
+import static com.github.tminglei.bind.Utils.*;
+
+public class UrlEncodedDataTest {
+
+    @BeforeClass
+    public void start() {
+        System.out.println(cyan("test url encoded data"));
+    }
+
+    @Test
+    public void testSameAsData() throws Exception {
+        System.out.println(green(">> same as data"));
+
+        String body = "name=t+1&tags=a&tags=b%26c&ids%5B%5D=1&flag&empty=&&note=%E4%B8%AD%E6%96%87&x%3Dy=1";
+        Map<String, String> data = Simple.formData(body.getBytes(StandardCharsets.US_ASCII), StandardCharsets.UTF_8);
+
+        // params as decoded by a servlet container
+        Map<String, List<String>> params = new LinkedHashMap<>();
+        for (String field : body.split("&")) {
+            if (field.isEmpty()) continue;
+            int i = field.indexOf('=');
+            String name = URLDecoder.decode(i < 0 ? field : field.substring(0, i), "UTF-8");
+            String value = i < 0 ? "" : URLDecoder.decode(field.substring(i + 1), "UTF-8");
+            params.computeIfAbsent(name, k -> new ArrayList<>()).add(value);
+        }
+        Map<String, String[]> params1 = new HashMap<>();
+        params.forEach((k, v) -> params1.put(k, v.toArray(new String[0])));
+
+        assertEquals(data, Simple.data(params1));
+        assertEquals(data.get("name"), "t 1");
+        assertEquals(data.get("tags[1]"), "b&c");
+        assertEquals(data.get("ids[0]"), "1");
+        assertEquals(data.get("flag"), "");
+        assertEquals(data.get("note"), "中文");
+        assertEquals(data.get("x=y"), "1");
+    }
+
+    @Test
+    public void testByteBuffer() {
+        System.out.println(green(">> byte buffer"));
+
+        ByteBuffer buffer = ByteBuffer.allocateDirect(16);
+        buffer.put("xxa=1&b=2".getBytes(StandardCharsets.US_ASCII)).flip();
+        buffer.position(2);
+        Map<String, String> data = Simple.formData(buffer, StandardCharsets.UTF_8);
+
+        assertEquals(data, FrameworkUtils.newmap(FrameworkUtils.entry("a", "1"), FrameworkUtils.entry("b", "2")));
+        assertEquals(buffer.position(), 2);
+
+        byte[] bytes = "xxa=1&b=2yy".getBytes(StandardCharsets.US_ASCII);
+        data = Simple.formData(ByteBuffer.wrap(bytes, 2, 7).slice(), StandardCharsets.UTF_8);
+        assertEquals(data, FrameworkUtils.newmap(FrameworkUtils.entry("a", "1"), FrameworkUtils.entry("b", "2")));
+    }
+
+    @Test
+    public void testLimits() {
+        System.out.println(green(">> limits and malformed"));
+
+        ByteBuffer body = ByteBuffer.wrap("a=1&b=2&c=3".getBytes(StandardCharsets.US_ASCII));
+        try {
+            Simple.formData(body, StandardCharsets.UTF_8, 10, 100);
+            fail("expected IllegalArgumentException");
+        } catch (IllegalArgumentException e) {
+            assertEquals(e.getMessage(), "Form body size 11 exceeds max 10");
+        }
+        try {
+            Simple.formData(body, StandardCharsets.UTF_8, 100, 2);
+            fail("expected IllegalArgumentException");
+        } catch (IllegalArgumentException e) {
+            assertEquals(e.getMessage(), "Form fields exceed max 2");
+        }
+
+        // values are decoded lazily, but checked when parsing
+        try {
+            Simple.formData("a=%2&b=1".getBytes(StandardCharsets.US_ASCII), StandardCharsets.UTF_8);
+            fail("expected IllegalArgumentException");
+        } catch (IllegalArgumentException e) {
+            assertEquals(e.getMessage(), "Illegal percent encoding at position 0");
+        }
+        try {
+            Simple.formData("a=1%zz&b=1".getBytes(StandardCharsets.US_ASCII), StandardCharsets.UTF_8);
+            fail("expected IllegalArgumentException");
+        } catch (IllegalArgumentException e) {
+            assertEquals(e.getMessage(), "Illegal percent encoding at position 1");
+        }
+        Map<String, String> data = Simple.formData("a=%41%2b+b&b=1".getBytes(StandardCharsets.US_ASCII), StandardCharsets.UTF_8);
+        assertEquals(data.get("a"), "A+ b");
+    }
+}